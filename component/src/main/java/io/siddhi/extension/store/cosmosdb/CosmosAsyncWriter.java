@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.Document;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A class which decouples CosmosDB Event Table add() operations from the Siddhi event thread. Documents are placed
+ * in a bounded queue and written by a pool of worker threads, each of which flushes a batch once it reaches the
+ * configured size or once the linger time of its first document has elapsed. The first failure of a worker is kept
+ * and reported to the caller of the next write, flush or stop.
+ */
+public class CosmosAsyncWriter {
+
+    private static final Log log = LogFactory.getLog(CosmosAsyncWriter.class);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final String collectionId;
+    private final BlockingQueue<Document> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Consumer<List<Document>> batchWriter;
+    private final Object pendingLock = new Object();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private int pending;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    CosmosAsyncWriter(String collectionId, int queueSize, int workerCount, int batchSize, long lingerMillis,
+                      Consumer<List<Document>> batchWriter) {
+        this.collectionId = collectionId;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * Method which starts the worker threads which drain the queue.
+     */
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "CosmosDB-AsyncWriter-" + collectionId + "-" +
+                    threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Method which enqueues the given documents, blocking the caller while the queue is full.
+     *
+     * @param documents the documents to be written to the collection.
+     * @throws SiddhiAppRuntimeException if writing a previously queued batch failed.
+     */
+    void write(List<Document> documents) {
+        if (!running) {
+            throw new SiddhiAppRuntimeException("Asynchronous writer of store '" + collectionId + "' is not " +
+                    "accepting documents as it has been stopped. ");
+        }
+        this.throwFailure();
+        try {
+            for (Document document : documents) {
+                synchronized (pendingLock) {
+                    pending++;
+                }
+                try {
+                    queue.put(document);
+                } catch (InterruptedException e) {
+                    this.release(1);
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SiddhiAppRuntimeException("Interrupted while queueing documents for store '" + collectionId +
+                    "'. ", e);
+        }
+    }
+
+    /**
+     * Method which blocks until every document queued so far has been written, so that reads which follow observe
+     * them.
+     *
+     * @throws SiddhiAppRuntimeException if writing a queued batch failed.
+     */
+    void flush() {
+        try {
+            synchronized (pendingLock) {
+                while (pending > 0) {
+                    pendingLock.wait(POLL_INTERVAL_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SiddhiAppRuntimeException("Interrupted while waiting for the queued documents of store '" +
+                    collectionId + "' to be written. ", e);
+        }
+        this.throwFailure();
+    }
+
+    /**
+     * Method which stops accepting new documents and blocks until every queued document has been written.
+     *
+     * @throws SiddhiAppRuntimeException if writing a queued batch failed.
+     */
+    void stop() {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        try {
+            while (!workers.awaitTermination(POLL_INTERVAL_MILLIS * 10, TimeUnit.MILLISECONDS)) {
+                log.info("Waiting for " + queue.size() + " queued document(s) to be written to store '" +
+                        collectionId + "'. ");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while draining the queued documents of store '" + collectionId + "'. " +
+                    queue.size() + " document(s) were not written. ", e);
+        }
+        workers = null;
+        this.throwFailure();
+    }
+
+    private void drain() {
+        List<Document> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Document first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Document next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                writeBatch(batch);
+                return;
+            }
+            writeBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void writeBatch(List<Document> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchWriter.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to asynchronously write " + batch.size() + " document(s) to store '" + collectionId +
+                    "'. ", e);
+            failure.compareAndSet(null, e);
+        } finally {
+            this.release(batch.size());
+        }
+    }
+
+    private void release(int documentCount) {
+        synchronized (pendingLock) {
+            pending -= documentCount;
+            if (pending <= 0) {
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Method which reports the first failure of the workers not yet reported, if any.
+     */
+    private void throwFailure() {
+        RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw new SiddhiAppRuntimeException("Failed to asynchronously write queued documents to store '" +
+                    collectionId + "'. ", e);
+        }
+    }
+}
@@ -23,28 +23,72 @@ import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.table.record.UpdateOrInsertReducer;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 
+import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 
 /**
  * Implementation class of {@link CompiledCondition} corresponding to the CosmosDB Event Table.
- * Maintains the condition string returned by the ConditionVisitor as well as a map of parameters to be used at runtime.
+ * Maintains the condition string returned by the ConditionVisitor, the query texts built from it once at compile time
+ * as well as a map of parameters to be bound at runtime.
  */
 public class CosmosCompiledCondition implements CompiledCondition {
 
     private String compiledQuery;
+    private String queryText;
+    private String findQueryText;
+    private String existsQueryText;
     private SortedMap<Integer, Object> parameters;
+    private Map<String, Object> equalityParameters;
+    private List<Object> keyParameters;
 
-    public CosmosCompiledCondition(String compiledQuery, SortedMap<Integer, Object> parameters,
+    public CosmosCompiledCondition(String compiledQuery, String queryText, String findQueryText,
+                                   String existsQueryText, SortedMap<Integer, Object> parameters,
+                                   Map<String, Object> equalityParameters, List<Object> keyParameters,
                                    UpdateOrInsertReducer updateOrInsertReducer,
                                    ExpressionExecutor inMemorySetExpressionExecutor) {
         this.compiledQuery = compiledQuery;
+        this.queryText = queryText;
+        this.findQueryText = findQueryText;
+        this.existsQueryText = existsQueryText;
         this.parameters = parameters;
+        this.equalityParameters = equalityParameters;
+        this.keyParameters = keyParameters;
     }
 
     public String getCompiledQuery() {
         return compiledQuery;
     }
 
+    /**
+     * Returns the SQL query selecting the documents matching the condition, with its parameters named "@p1".."@pn".
+     *
+     * @return the parameterized query text.
+     */
+    public String getQueryText() {
+        return queryText;
+    }
+
+    /**
+     * Returns the SQL query selecting only the table attributes of the documents matching the condition, with its
+     * parameters named "@p1".."@pn".
+     *
+     * @return the parameterized query text.
+     */
+    public String getFindQueryText() {
+        return findQueryText;
+    }
+
+    /**
+     * Returns the SQL query which selects the id of at most one document matching the condition, with its parameters
+     * named "@p1".."@pn".
+     *
+     * @return the parameterized query text.
+     */
+    public String getExistsQueryText() {
+        return existsQueryText;
+    }
+
     public String toString() {
         return getCompiledQuery();
     }
@@ -52,4 +96,23 @@ public class CosmosCompiledCondition implements CompiledCondition {
     public SortedMap<Integer, Object> getParameters() {
         return parameters;
     }
+
+    /**
+     * Returns the equality comparisons of store attributes which every matching document must satisfy.
+     *
+     * @return a map of store attribute names and the stream variable or constant they are compared to.
+     */
+    public Map<String, Object> getEqualityParameters() {
+        return equalityParameters;
+    }
+
+    /**
+     * Returns the stream variables or constants the key attributes are compared to, in key order, when the condition
+     * identifies a single document by its id.
+     *
+     * @return the key parameters, or null if the condition is not a key lookup.
+     */
+    public List<Object> getKeyParameters() {
+        return keyParameters;
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import io.siddhi.core.util.collection.operator.CompiledSelection;
+import io.siddhi.extension.store.cosmosdb.util.CosmosTableConstants;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation class of {@link CompiledSelection} corresponding to the CosmosDB Event Table.
+ * Maintains the clauses of the SQL query compiled from a Siddhi selector as well as a map of parameters to be bound at
+ * runtime. The clauses are combined with the WHERE clause of a compiled condition once per condition.
+ */
+public class CosmosCompiledSelection implements CompiledSelection {
+
+    private String collectionId;
+    private String selectClause;
+    private String groupByClause;
+    private String orderByClause;
+    private Long limit;
+    private Long offset;
+    private Map<String, Object> parameters;
+    private boolean aggregated;
+    private Map<CosmosCompiledCondition, String> queryTexts;
+
+    public CosmosCompiledSelection(String collectionId, String selectClause, String groupByClause,
+                                   String orderByClause, Long limit, Long offset, Map<String, Object> parameters,
+                                   boolean aggregated) {
+        this.collectionId = collectionId;
+        this.selectClause = selectClause;
+        this.groupByClause = groupByClause;
+        this.orderByClause = orderByClause;
+        this.limit = limit;
+        this.offset = offset;
+        this.parameters = parameters;
+        this.aggregated = aggregated;
+        this.queryTexts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the maximum number of rows the selection yields.
+     *
+     * @return the limit of the selection, or null if it is not limited.
+     */
+    public Long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the stream variables and constants used by the selection, keyed by the names they have been given in the
+     * query text.
+     *
+     * @return a map of parameter names and parameters.
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns whether the selection aggregates the matching documents, either by grouping them or by selecting
+     * aggregates only.
+     *
+     * @return true if the selection is grouped or aggregated.
+     */
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    /**
+     * Returns the SQL query applying the selection to the documents matching the given condition. The parameters of
+     * the condition are named "@p1".."@pn" and those of the selection are prefixed with "@s".
+     *
+     * @param compiledCondition the condition the selection is applied on.
+     * @return the parameterized query text.
+     */
+    public String getQueryText(CosmosCompiledCondition compiledCondition) {
+        return queryTexts.computeIfAbsent(compiledCondition, this::buildQueryText);
+    }
+
+    private String buildQueryText(CosmosCompiledCondition compiledCondition) {
+        boolean top = limit != null && (offset == null || offset == 0);
+        StringBuilder queryText = new StringBuilder(String.format(CosmosTableConstants.SQL_SELECT_ATTRIBUTES,
+                top ? CosmosTableConstants.SQL_TOP + limit + " " + selectClause : selectClause, collectionId,
+                compiledCondition.getCompiledQuery()));
+        if (groupByClause != null) {
+            queryText.append(CosmosTableConstants.SQL_GROUP_BY).append(groupByClause);
+        }
+        if (orderByClause != null) {
+            queryText.append(CosmosTableConstants.SQL_ORDER_BY).append(orderByClause);
+        }
+        if (limit != null && !top) {
+            queryText.append(CosmosTableConstants.SQL_OFFSET).append(offset == null ? 0 : offset)
+                    .append(CosmosTableConstants.SQL_LIMIT).append(limit);
+        }
+        return queryText.toString();
+    }
+
+    public String toString() {
+        return selectClause;
+    }
+}
@@ -29,6 +29,7 @@ import io.siddhi.query.api.expression.condition.Compare;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.Stack;
@@ -53,6 +54,8 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     private String finalCompiledCondition;
     private String tableName;
     private boolean isAfterSelectClause;
+    private String parameterPrefix;
+    private boolean aggregation;
 
     private Map<String, Object> placeholders;
     private SortedMap<Integer, Object> parameters;
@@ -67,10 +70,23 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     private StringBuilder subSelect;
     private StringBuilder outerCompiledCondition;
 
-    private String[] supportedFunctions = {"sum", "avg", "min", "max"};
+    private String[] supportedFunctions = {"sum", "avg", "min", "max", "count"};
+
+    private Map<String, Object> equalityParameters;
+    private boolean pureEquality;
+    private int disjunctionDepth;
+    private boolean insideCompare;
+    private boolean complexCompare;
+    private String compareStoreAttribute;
+    private Object compareParameter;
 
     CosmosConditionVisitor(String tableName, boolean isAfterSelectClause) {
+        this(tableName, isAfterSelectClause, CosmosTableConstants.SQL_PARAMETER_PREFIX);
+    }
+
+    CosmosConditionVisitor(String tableName, boolean isAfterSelectClause, String parameterPrefix) {
         this.tableName = tableName;
+        this.parameterPrefix = parameterPrefix;
         this.condition = new StringBuilder();
         this.streamVarCount = 0;
         this.constantCount = 0;
@@ -80,6 +96,8 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
         this.outerCompiledCondition = new StringBuilder();
         this.lastConditionParams = new Stack<>();
         this.isAfterSelectClause = isAfterSelectClause;
+        this.equalityParameters = new LinkedHashMap<>();
+        this.pureEquality = true;
     }
 
     private CosmosConditionVisitor() {
@@ -95,6 +113,35 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
         return this.parameters;
     }
 
+    /**
+     * Method which returns the equality comparisons of store attributes which every matching document must satisfy,
+     * i.e. those which are not nested inside an OR or a NOT.
+     *
+     * @return a map of store attribute names and the stream variable or constant they are compared to.
+     */
+    Map<String, Object> getEqualityParameters() {
+        return this.equalityParameters;
+    }
+
+    /**
+     * Method which checks whether the expression applies an aggregate function.
+     *
+     * @return true if sum(), avg(), min(), max() or count() has been visited.
+     */
+    boolean isAggregation() {
+        return this.aggregation;
+    }
+
+    /**
+     * Method which checks whether the condition consists of nothing but AND-ed equality comparisons of store
+     * attributes.
+     *
+     * @return true if the condition is a pure conjunction of equalities.
+     */
+    boolean isPureEquality() {
+        return this.pureEquality && !this.equalityParameters.isEmpty();
+    }
+
     @Override
     public void beginVisitAnd() {
         condition.append(OPEN_PARENTHESIS);
@@ -128,11 +175,14 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     @Override
     public void beginVisitOr() {
         condition.append(OPEN_PARENTHESIS);
+        disjunctionDepth++;
+        pureEquality = false;
     }
 
     @Override
     public void endVisitOr() {
         condition.append(CLOSE_PARENTHESIS);
+        disjunctionDepth--;
     }
 
     @Override
@@ -158,21 +208,39 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     @Override
     public void beginVisitNot() {
         condition.append(CosmosTableConstants.SQL_NOT).append(WHITESPACE).append(OPEN_PARENTHESIS);
+        disjunctionDepth++;
+        pureEquality = false;
     }
 
     @Override
     public void endVisitNot() {
         condition.append(CLOSE_PARENTHESIS);
+        disjunctionDepth--;
     }
 
     @Override
     public void beginVisitCompare(Compare.Operator operator) {
         condition.append(OPEN_PARENTHESIS);
+        insideCompare = true;
+        complexCompare = false;
+        compareStoreAttribute = null;
+        compareParameter = null;
     }
 
     @Override
     public void endVisitCompare(Compare.Operator operator) {
         condition.append(CLOSE_PARENTHESIS);
+        insideCompare = false;
+        if (operator == Compare.Operator.EQUAL && !complexCompare && compareStoreAttribute != null &&
+                compareParameter != null) {
+            if (disjunctionDepth == 0 && !equalityParameters.containsKey(compareStoreAttribute)) {
+                equalityParameters.put(compareStoreAttribute, compareParameter);
+            } else {
+                pureEquality = false;
+            }
+        } else {
+            pureEquality = false;
+        }
     }
 
     @Override
@@ -217,6 +285,7 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitIsNull(String streamId) {
+        pureEquality = false;
     }
 
     @Override
@@ -227,6 +296,7 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     @Override
     public void beginVisitIn(String storeId) {
         condition.append(CosmosTableConstants.SQL_IN).append(WHITESPACE);
+        pureEquality = false;
     }
 
     @Override
@@ -243,8 +313,10 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
         } else {
             name = this.generateConstantName();
         }
-        this.placeholders.put(name, new Constant(value, type));
+        Constant constant = new Constant(value, type);
+        this.placeholders.put(name, constant);
         condition.append("[").append(name).append("]").append(WHITESPACE);
+        this.trackCompareParameter(constant);
     }
 
     @Override
@@ -255,6 +327,8 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     @Override
     public void beginVisitMath(MathOperator mathOperator) {
         condition.append(OPEN_PARENTHESIS);
+        complexCompare = true;
+        pureEquality = false;
     }
 
     @Override
@@ -301,9 +375,12 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitAttributeFunction(String namespace, String functionName) {
+        complexCompare = true;
+        pureEquality = false;
         if (CosmosTableUtils.isEmpty(namespace) &&
                 (Arrays.stream(supportedFunctions).anyMatch(functionName::equals))) {
             condition.append(functionName).append(CosmosTableConstants.OPEN_PARENTHESIS);
+            aggregation = true;
         } else if (namespace.trim().equals("str") && functionName.equals("contains")) {
             condition.append("CONTAINS").append(OPEN_PARENTHESIS);
             nextProcessContainsPattern = true;
@@ -311,7 +388,8 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
             lastConditionExist = true;
         } else {
             throw new OperationNotSupportedException("The CosmosDB Event table does not support functions other than " +
-                    "sum(), avg(), min(), max(), str:contains() and incrementalAggregator:last() but function '" +
+                    "sum(), avg(), min(), max(), count(), str:contains() and incrementalAggregator:last() but " +
+                    "function '" +
                     ((CosmosTableUtils.isEmpty(namespace)) ? "" + functionName : namespace + ":" + functionName) +
                     "' was specified.");
 
@@ -322,6 +400,10 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     public void endVisitAttributeFunction(String namespace, String functionName) {
         if ((namespace.trim().equals("str") && functionName.equals("contains")) ||
                 (Arrays.stream(supportedFunctions).anyMatch(functionName::equals))) {
+            if (functionName.equals("count") && condition.charAt(condition.length() - 1) == '(') {
+                //count() without an argument counts every document.
+                condition.append("1");
+            }
             condition.append(CLOSE_PARENTHESIS).append(WHITESPACE);
         } else if (namespace.trim().equals("incrementalAggregator") && functionName.equals("last")) {
             String maxVariableName = lastConditionParams.pop();
@@ -337,7 +419,8 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
 
         } else {
             throw new OperationNotSupportedException("The CosmosDB Event table does not support functions other than " +
-                    "sum(), avg(), min(), max(), str:contains() and incrementalAggregator:last() but function '" +
+                    "sum(), avg(), min(), max(), count(), str:contains() and incrementalAggregator:last() but " +
+                    "function '" +
                     ((CosmosTableUtils.isEmpty(namespace)) ? "" + functionName : namespace + ":" + functionName) +
                     "' was specified.");
         }
@@ -362,8 +445,10 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
         } else {
             name = this.generateStreamVarName();
         }
-        this.placeholders.put(name, new Attribute(id, type));
+        Attribute streamVariable = new Attribute(id, type);
+        this.placeholders.put(name, streamVariable);
         condition.append("[").append(name).append("]").append(WHITESPACE);
+        this.trackCompareParameter(streamVariable);
     }
 
     @Override
@@ -373,9 +458,16 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
+        if (insideCompare && compareStoreAttribute == null) {
+            compareStoreAttribute = attributeName;
+        } else {
+            complexCompare = true;
+            pureEquality = false;
+        }
         if (!lastConditionExist) {
             if (!isAfterSelectClause) {
-                condition.append(this.tableName).append(".").append(attributeName).append(WHITESPACE);
+                condition.append(CosmosTableUtils.toPropertyReference(this.tableName, attributeName))
+                        .append(WHITESPACE);
                 outerCompiledCondition.append(this.tableName).append(".").append(attributeName).append(EQUALS)
                         .append(SUB_SELECT_QUERY_REF).append(".").append(attributeName);
             } else {
@@ -392,11 +484,25 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
     }
 
     /**
-     * Util method for walking through the generated condition string and isolating the parameters which will be filled
-     * in later as part of building the SQL statement. This method will:
-     * (a) eliminate all temporary placeholders and put "?" in their places.
-     * (b) build and maintain a sorted map of ordinals and the corresponding parameters which will fit into the above
-     * places in the PreparedStatement.
+     * Method for keeping track of the stream variable or constant operand of the comparison being visited.
+     *
+     * @param parameter the stream variable or constant.
+     */
+    private void trackCompareParameter(Object parameter) {
+        if (insideCompare && compareParameter == null) {
+            compareParameter = parameter;
+        } else {
+            complexCompare = true;
+            pureEquality = false;
+        }
+    }
+
+    /**
+     * Util method for walking through the generated condition string and isolating the parameters which will be bound
+     * later as part of building the SQL query. This method will:
+     * (a) eliminate all temporary placeholders and put named parameters (e.g. "@p1".."@pn") in their places.
+     * (b) build and maintain a sorted map of ordinals and the corresponding parameters which will be bound to the
+     * above names in the SqlQuerySpec.
      */
     private void parametrizeCondition() {
         String query = this.condition.toString();
@@ -407,13 +513,11 @@ public class CosmosConditionVisitor extends BaseExpressionVisitor {
                 String candidate = token.substring(0, token.indexOf("]"));
                 if (this.placeholders.containsKey(candidate)) {
                     this.parameters.put(ordinal, this.placeholders.get(candidate));
+                    query = query.replace("[" + candidate + "]", this.parameterPrefix + ordinal);
                     ordinal++;
                 }
             }
         }
-        for (String placeholder : this.placeholders.keySet()) {
-            query = query.replace("[" + placeholder + "]", "?");
-        }
         this.finalCompiledCondition = query;
     }
 
@@ -23,38 +23,69 @@ import com.microsoft.azure.documentdb.ConnectionPolicy;
 import com.microsoft.azure.documentdb.ConsistencyLevel;
 import com.microsoft.azure.documentdb.Database;
 import com.microsoft.azure.documentdb.Document;
-import com.microsoft.azure.documentdb.DocumentClient;
 import com.microsoft.azure.documentdb.DocumentClientException;
 import com.microsoft.azure.documentdb.DocumentCollection;
 import com.microsoft.azure.documentdb.FeedOptions;
+import com.microsoft.azure.documentdb.PartitionKey;
+import com.microsoft.azure.documentdb.PartitionKeyDefinition;
 import com.microsoft.azure.documentdb.RequestOptions;
+import com.microsoft.azure.documentdb.SqlParameter;
 import com.microsoft.azure.documentdb.SqlQuerySpec;
+import com.microsoft.azure.documentdb.StoredProcedure;
 import io.siddhi.annotation.Example;
 import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.SystemParameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.exception.QueryableRecordTableException;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.exception.SiddhiAppRuntimeException;
-import io.siddhi.core.table.record.AbstractRecordTable;
+import io.siddhi.core.table.record.AbstractQueryableRecordTable;
 import io.siddhi.core.table.record.ExpressionBuilder;
 import io.siddhi.core.table.record.RecordIterator;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 import io.siddhi.core.util.collection.operator.CompiledExpression;
+import io.siddhi.core.util.collection.operator.CompiledSelection;
 import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.extension.store.cosmosdb.client.CosmosClient;
+import io.siddhi.extension.store.cosmosdb.client.CosmosClientRegistry;
+import io.siddhi.extension.store.cosmosdb.client.CosmosQuery;
+import io.siddhi.extension.store.cosmosdb.client.CosmosResponse;
+import io.siddhi.extension.store.cosmosdb.client.InMemoryCosmosClient;
 import io.siddhi.extension.store.cosmosdb.util.CosmosTableConstants;
 import io.siddhi.extension.store.cosmosdb.util.CosmosTableUtils;
 import io.siddhi.query.api.annotation.Annotation;
+import io.siddhi.query.api.annotation.Element;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.definition.TableDefinition;
+import io.siddhi.query.api.execution.query.selection.OrderByAttribute;
 import io.siddhi.query.api.util.AnnotationHelper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
+import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_PRIMARY_KEY;
 import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_STORE;
 
 /**
@@ -64,7 +95,11 @@ import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_STORE;
         name = "cosmosdb",
         namespace = "store",
         description = "This extension will be used to execute Create, Update, Delete, Find and Contains operations on" +
-                " document collections in Cosmos DB.",
+                " document collections in Cosmos DB. Projections, 'group by' with sum(), avg(), min(), max() and " +
+                "count(), 'order by' on table attributes and 'limit' of queries on the table are performed by " +
+                "Cosmos DB; queries using any other construct are processed by Siddhi. As Cosmos DB only " +
+                "aggregates within a single partition, aggregating queries on a partitioned collection must " +
+                "compare the partition key attribute for equality, unless 'partition.key' is given.",
         parameters = {
                 @Parameter(name = "uri",
                         description = "The Cosmos DB uri for the Cosmos DB data store. The uri must be of the " +
@@ -206,7 +241,192 @@ import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_STORE;
                                 "&gt;= 1.",
                         type = {DataType.STRING},
                         optional = true,
-                        defaultValue = "0")
+                        defaultValue = "0"),
+                @Parameter(name = "is.enable.async.write",
+                        description = "Sets whether documents added to the table are written asynchronously. When " +
+                                "enabled, the events are placed in a bounded queue and written to the collection by " +
+                                "a pool of worker threads instead of the Siddhi event thread, through the bulk " +
+                                "insert stored procedure unless transactional batches are enabled. Queued documents " +
+                                "are drained before any read, update, delete, or update or insert of the table, and " +
+                                "before the table disconnects, hence those operations see every event added before " +
+                                "them. A failed batch is reported by the next operation on the table, or by its " +
+                                "disconnection. Possible values are 'true' or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "async.write.queue.size",
+                        description = "Sets the maximum number of documents waiting to be written when asynchronous " +
+                                "writes are enabled. Adding events blocks while the queue is full.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "10000"),
+                @Parameter(name = "async.write.worker.count",
+                        description = "Sets the number of worker threads writing documents concurrently when " +
+                                "asynchronous writes are enabled.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "4"),
+                @Parameter(name = "async.write.batch.size",
+                        description = "Sets the maximum number of documents a worker flushes at once when " +
+                                "asynchronous writes are enabled.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(name = "async.write.linger.ms",
+                        description = "Sets the time in milliseconds a worker waits for a batch to fill up before " +
+                                "flushing it when asynchronous writes are enabled.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "10"),
+                @Parameter(name = "is.enable.bulk.insert",
+                        description = "Sets whether documents are inserted in bulk through a stored procedure " +
+                                "registered on the collection when the table connects. Documents are grouped by " +
+                                "their partition key and each group is sent as a single stored procedure " +
+                                "execution instead of one request per document. Possible values are 'true' or " +
+                                "'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "bulk.insert.batch.size",
+                        description = "Sets the maximum number of documents sent in a single stored procedure " +
+                                "execution when bulk inserts are enabled.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(name = "is.enable.native.upsert",
+                        description = "Sets whether update or insert operations are performed as a single upsert " +
+                                "request keyed by the document id, instead of querying for matching documents " +
+                                "first. This requires the table to either compose document ids of its '@PrimaryKey' " +
+                                "or define a string attribute named 'id'. Only update or insert queries whose " +
+                                "condition is an equality on the key and whose set clause assigns every attribute of " +
+                                "the table are upserted, replacing a matching document by the inserted event as a " +
+                                "whole. Other update or insert queries read and replace the matching documents. " +
+                                "Possible values are 'true' or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "is.enable.primary.key.id",
+                        description = "Sets whether the id of each document is composed of the values of the " +
+                                "'@PrimaryKey' attributes of the table, separated by '_'. Characters of the key " +
+                                "values other than ASCII letters, digits and '-' are escaped as '~' followed by the " +
+                                "hex digits of their UTF-8 bytes. Key lookups are then served by reading the " +
+                                "document by its id, and adding an event with an existing key fails instead of " +
+                                "creating a duplicate document. When enabled, an 'id' attribute can only be defined " +
+                                "as the sole primary key. Documents written while this is disabled keep their " +
+                                "generated ids and are not found by key lookups, hence enabling it on an existing " +
+                                "collection requires rewriting its documents with the composed ids. Possible values " +
+                                "are 'true' or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "partition.key.attribute",
+                        description = "Sets the table attribute whose value is used as the partition key of each " +
+                                "document. When the collection is created by the table, it is partitioned on this " +
+                                "attribute. If the document ids are composed of the '@PrimaryKey' attributes, the " +
+                                "attribute must be one of them. When not set, the partition key path of an existing " +
+                                "collection is used if it refers to a table attribute.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "null"),
+                @Parameter(name = "query.page.size",
+                        description = "Sets the maximum number of documents fetched per round trip when querying " +
+                                "the collection. Query results are streamed to Siddhi one page at a time, hence " +
+                                "this also bounds the number of documents held in memory. When not set, the page " +
+                                "size of the service is used.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "null"),
+                @Parameter(name = "query.prefetch.depth",
+                        description = "Sets the number of result pages fetched in the background while Siddhi " +
+                                "consumes the current page of a query. Each query being consumed holds a " +
+                                "background thread while it prefetches. By default each page is fetched only " +
+                                "once the previous one has been consumed.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(name = "write.parallelism",
+                        description = "Sets the number of lanes documents added to the table are written on in " +
+                                "parallel. Documents are grouped by the value of their partition key and each " +
+                                "partition key value is always written on the same lane, hence the order of the " +
+                                "documents of a partition is preserved.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "1"),
+                @Parameter(name = "request.units.per.second",
+                        description = "Sets the budget of request units per second the table spends on the " +
+                                "collection. When set, requests are paced on the client according to the request " +
+                                "charges reported for each type of operation, instead of being sent until the " +
+                                "service throttles them. The value '0' disables pacing.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(name = "is.enable.throttle.retry.scheduling",
+                        description = "Sets whether requests throttled by the service are retried by the table " +
+                                "instead of by the client. A throttled write is then parked until the retry-after " +
+                                "interval given by the service has elapsed, while writes of other partitions carry " +
+                                "on. Adding events still blocks until all the documents of the events have been " +
+                                "written, and reads, queries, updates and deletes wait for their retries on the " +
+                                "Siddhi event thread as they do with the client. A request is given up once it has " +
+                                "been throttled more times than the 'MaxRetryAttemptsOnThrottledRequests' system " +
+                                "parameter allows, or once it would have waited for longer than the " +
+                                "'MaxRetryWaitTimeInSeconds' system parameter allows. Possible values are 'true' " +
+                                "or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "is.enable.transactional.batch",
+                        description = "Sets whether events added to the table, and events updated or inserted " +
+                                "through a key lookup condition (or native upserts), are written through a " +
+                                "transactional batch stored procedure registered on the collection when the " +
+                                "table connects. Events are grouped by their partition key and up to 100 " +
+                                "operations of a partition are applied atomically in a single round trip. This " +
+                                "takes precedence over 'is.enable.bulk.insert'. Possible values are 'true' or " +
+                                "'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "is.enable.patch.update",
+                        description = "Sets whether update and update or insert operations send only the " +
+                                "attribute values being set to a patch stored procedure registered on the " +
+                                "collection when the table connects. The document is then updated within its " +
+                                "partition, without being read by the table first or sent back in full. When the " +
+                                "condition is not a key lookup, only the ids and partition key values of the " +
+                                "matching documents are queried. Possible values are 'true' or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "is.enable.server.side.update",
+                        description = "Sets whether update operations whose condition is not a key lookup are " +
+                                "performed by an update by condition stored procedure registered on the " +
+                                "collection when the table connects. The condition and the attribute values being " +
+                                "set are sent in a single request per event, and the matching documents are " +
+                                "queried and replaced within their partition. This applies when the collection is " +
+                                "not partitioned by an attribute, or when the condition requires the partition key " +
+                                "attribute to be equal to a value. Possible values are 'true' or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "is.enable.bulk.delete",
+                        description = "Sets whether delete operations whose condition is not a key lookup are " +
+                                "performed by a delete by condition stored procedure registered on the " +
+                                "collection when the table connects. The stored procedure queries and deletes the " +
+                                "matching documents of a partition, and is executed again until its query no " +
+                                "longer matches any document. When the condition does not require the " +
+                                "partition key attribute to be equal to a value, only the partition key values of " +
+                                "the matching documents are queried, and each of those partitions is purged in " +
+                                "turn. Possible values are 'true' or 'false'.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(name = "document.operation.concurrency",
+                        description = "Sets the maximum number of documents matched by an update, update or " +
+                                "insert, or delete condition which are replaced, patched or deleted concurrently. " +
+                                "The operation fails as soon as any of the documents fails, and the documents " +
+                                "which are still pending are left untouched. A value of 1 operates on the " +
+                                "documents one at a time.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "1")
         },
         systemParameter = {
                 @SystemParameter(name = "requestTimeout",
@@ -297,7 +517,18 @@ import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_STORE;
                                 "must match or be weaker than that provisioned for the database account. Consistency " +
                                 "levels by order of strength are Strong, BoundedStaleness, Session and Eventual.",
                         defaultValue = "Session",
-                        possibleParameters = {"Strong", "BoundedStaleness", "Session", "Eventual", "ConsistentPrefix"})
+                        possibleParameters = {"Strong", "BoundedStaleness", "Session", "Eventual", "ConsistentPrefix"}),
+                @SystemParameter(name = "clientType",
+                        description = "Sets the client the table sends its requests through. 'DocumentDB' sends " +
+                                "them to the Cosmos DB account given by 'uri'. 'InMemory' serves them from documents " +
+                                "kept in memory, shared by the tables of the same 'uri' in the JVM, which is meant " +
+                                "for measuring the overhead of the table and for running it without an account. The " +
+                                "in-memory client evaluates the subset of Cosmos DB SQL generated by the table. As " +
+                                "on the service, the database given by 'database.name' is not created by the table, " +
+                                "hence it has to be created through 'InMemoryCosmosClient.createDatabase' before the " +
+                                "Siddhi app starts.",
+                        defaultValue = "DocumentDB",
+                        possibleParameters = {"DocumentDB", "InMemory"})
         },
         examples = {
                 @Example(
@@ -401,6 +632,19 @@ import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_STORE;
                                 " are selected, sorted in ascending order according to the 'symbol' attribute values" +
                                 " and inserted into the logStream."
                 ),
+                @Example(
+                        syntax = "@Store(type=\"cosmosdb\"," +
+                                "uri=\"https://myCosmosDBName.documents.azure.com:443\", \n" +
+                                "access.key= 'access key generated by the Cosmos DB', \n " +
+                                "database.name=\"admin\", partition.key.attribute=\"symbol\", \n" +
+                                "is.enable.primary.key.id=\"true\") \n" +
+                                "@PrimaryKey(\"symbol\", \"exchange\") \n" +
+                                "define table FooTable (symbol string, exchange string, price float);",
+                        description = "The above example creates an event table named 'FooTable' in the database if" +
+                                " it does not already exist, partitioned on the 'symbol' attribute. The id of each " +
+                                "document is composed of its 'symbol' and 'exchange' values separated by '_', so " +
+                                "adding an event with an existing key fails instead of creating a duplicate document."
+                ),
                 @Example(
                         syntax = "@Store(type=\"cosmosdb\"," +
                                 "uri=\"https://myCosmosDBName.documents.azure.com:443\", \n" +
@@ -421,22 +665,63 @@ import static io.siddhi.core.util.SiddhiConstants.ANNOTATION_STORE;
                 )
         }
 )
-public class CosmosDBEventTable extends AbstractRecordTable {
-    private DocumentClient documentClient;
+public class CosmosDBEventTable extends AbstractQueryableRecordTable {
+    private static final Log log = LogFactory.getLog(CosmosDBEventTable.class);
+    private Supplier<CosmosClient> clientFactory;
+    private CosmosClient cosmosClient;
     private List<String> attributeNames;
     private String databaseId;
     private String collectionId;
     private String collectionLink;
     private DocumentCollection documentCollection;
     private RequestOptions requestOptions;
+    private Consumer<RequestOptions> requestOptionsInitializer;
     private FeedOptions feedOptions;
+    private Consumer<FeedOptions> feedOptionsInitializer;
+    private Integer queryPageSize;
     private boolean disableAutomaticIdGeneration;
+    private boolean asyncWrite;
+    private int asyncWriteQueueSize;
+    private int asyncWriteWorkerCount;
+    private int asyncWriteBatchSize;
+    private long asyncWriteLingerMillis;
+    private CosmosAsyncWriter asyncWriter;
+    private int queryPrefetchDepth;
+    private ExecutorService prefetchExecutor;
+    private int writeParallelism;
+    private CosmosWriteRouter writeRouter;
+    private CosmosRateLimiter rateLimiter;
+    private boolean throttleRetryScheduling;
+    private int throttleRetryAttempts;
+    private int throttleRetryWaitSeconds;
+    private CosmosRetryScheduler retryScheduler;
+    private boolean bulkInsert;
+    private int bulkInsertBatchSize;
+    private String bulkInsertProcedureLink;
+    private boolean transactionalBatch;
+    private String transactionalBatchProcedureLink;
+    private boolean patchUpdate;
+    private String patchProcedureLink;
+    private boolean serverSideUpdate;
+    private String updateByConditionProcedureLink;
+    private boolean bulkDelete;
+    private String deleteByConditionProcedureLink;
+    private int documentOperationConcurrency;
+    private CosmosDocumentExecutor documentExecutor;
+    private String partitionKeyAttribute;
+    private boolean partitionKeyResolvable;
+    private boolean partitioned;
+    private boolean nativeUpsert;
+    private int[] primaryKeyPositions;
+    private List<String> keyAttributes;
+    private Annotation storeAnnotation;
+    private String attributeProjection;
 
     @Override
     protected void init(TableDefinition tableDefinition, ConfigReader configReader) {
         this.attributeNames =
                 tableDefinition.getAttributeList().stream().map(Attribute::getName).collect(Collectors.toList());
-        Annotation storeAnnotation = AnnotationHelper.getAnnotation(ANNOTATION_STORE, tableDefinition.getAnnotations());
+        this.storeAnnotation = AnnotationHelper.getAnnotation(ANNOTATION_STORE, tableDefinition.getAnnotations());
         this.databaseId = storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_DATABASE_NAME);
         if (CosmosTableUtils.isEmpty(databaseId)) {
             throw new SiddhiAppCreationException("Required parameter '" +
@@ -447,15 +732,187 @@ public class CosmosDBEventTable extends AbstractRecordTable {
                 storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_COLLECTION_NAME);
         this.collectionId = CosmosTableUtils.isEmpty(customCollectionName) ? tableDefinition.getId() :
                 customCollectionName;
+        this.attributeProjection = attributeNames.stream()
+                .map(attributeName -> CosmosTableUtils.toPropertyReference(collectionId, attributeName))
+                .collect(Collectors.joining(", "));
+        throttleRetryScheduling = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_THROTTLE_RETRY_SCHEDULING));
         this.createDocumentClient(storeAnnotation, configReader);
         disableAutomaticIdGeneration = Boolean.parseBoolean(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_ID_GENERATION));
-        requestOptions = CosmosTableUtils.getCustomRequestOptions(storeAnnotation);
-        feedOptions = CosmosTableUtils.getFeedOptions(storeAnnotation);
+        requestOptionsInitializer = CosmosTableUtils.getRequestOptionsInitializer(storeAnnotation);
+        requestOptions = new RequestOptions();
+        requestOptionsInitializer.accept(requestOptions);
+        if (!CosmosTableUtils.isEmpty(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_QUERY_PAGE_SIZE))) {
+            queryPageSize = this.readIntegerOption(storeAnnotation,
+                    CosmosTableConstants.ANNOTATION_ELEMENT_QUERY_PAGE_SIZE, 0, 1);
+        }
+        feedOptionsInitializer = CosmosTableUtils.getFeedOptionsInitializer(storeAnnotation)
+                .andThen(options -> options.setPageSize(queryPageSize));
+        feedOptions = new FeedOptions();
+        feedOptionsInitializer.accept(feedOptions);
+        this.initAsyncWriteOptions(storeAnnotation);
+        this.initKeyOptions(storeAnnotation, tableDefinition);
+        this.initUpsertOptions(storeAnnotation, tableDefinition);
+        bulkInsert = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_BULK_INSERT));
+        bulkInsertBatchSize = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_BULK_INSERT_BATCH_SIZE,
+                CosmosTableConstants.DEFAULT_BULK_INSERT_BATCH_SIZE, 1);
+        transactionalBatch = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_TRANSACTIONAL_BATCH));
+        patchUpdate = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_PATCH_UPDATE));
+        serverSideUpdate = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_SERVER_SIDE_UPDATE));
+        bulkDelete = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_BULK_DELETE));
+        queryPrefetchDepth = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_QUERY_PREFETCH_DEPTH,
+                CosmosTableConstants.DEFAULT_QUERY_PREFETCH_DEPTH, 0);
+        writeParallelism = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_WRITE_PARALLELISM,
+                CosmosTableConstants.DEFAULT_WRITE_PARALLELISM, 1);
+        documentOperationConcurrency = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_DOCUMENT_OPERATION_CONCURRENCY,
+                CosmosTableConstants.DEFAULT_DOCUMENT_OPERATION_CONCURRENCY, 1);
+        int requestUnitsPerSecond = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_REQUEST_UNITS_PER_SECOND,
+                CosmosTableConstants.DEFAULT_REQUEST_UNITS_PER_SECOND, 0);
+        rateLimiter = requestUnitsPerSecond > 0 ? new CosmosRateLimiter(collectionId, requestUnitsPerSecond) : null;
+    }
+
+    /**
+     * Method for reading an optional integer parameter of the table.
+     *
+     * @param storeAnnotation the source annotation which contains the needed parameters.
+     * @param element         the name of the parameter.
+     * @param defaultValue    the value of the parameter when it is not given.
+     * @param minimum         the least value the parameter can take.
+     * @return the value of the parameter.
+     */
+    private int readIntegerOption(Annotation storeAnnotation, String element, int defaultValue, int minimum) {
+        String value = storeAnnotation.getElement(element);
+        int option;
+        try {
+            option = CosmosTableUtils.isEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new SiddhiAppCreationException("Parameter '" + element + "' of store '" + collectionId +
+                    "' should be an integer. ", e);
+        }
+        if (option < minimum) {
+            throw new SiddhiAppCreationException("Parameter '" + element + "' of store '" + collectionId +
+                    "' should be at least " + minimum + ". ");
+        }
+        return option;
+    }
+
+    /**
+     * Method for reading the primary key and partition key configuration of the table.
+     *
+     * @param storeAnnotation the source annotation which contains the needed parameters.
+     * @param tableDefinition the definition of the table.
+     */
+    private void initKeyOptions(Annotation storeAnnotation, TableDefinition tableDefinition) {
+        Annotation primaryKeyAnnotation = AnnotationHelper.getAnnotation(ANNOTATION_PRIMARY_KEY,
+                tableDefinition.getAnnotations());
+        List<String> primaryKeys = new ArrayList<>();
+        boolean primaryKeyId = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_PRIMARY_KEY_ID));
+        if (primaryKeyAnnotation != null) {
+            for (Element element : primaryKeyAnnotation.getElements()) {
+                String primaryKey = element.getValue().trim();
+                if (!attributeNames.contains(primaryKey)) {
+                    throw new SiddhiAppCreationException("Primary key '" + primaryKey + "' of store '" +
+                            collectionId + "' is not an attribute of the table. ");
+                }
+                primaryKeys.add(primaryKey);
+            }
+            if (!primaryKeyId) {
+                //Documents keep their existing ids, hence the primary key cannot be used to address them.
+                primaryKeys.clear();
+            } else if (attributeNames.contains(CosmosTableConstants.DOCUMENT_ID) && !(primaryKeys.size() == 1 &&
+                    primaryKeys.get(0).equals(CosmosTableConstants.DOCUMENT_ID))) {
+                throw new SiddhiAppCreationException("The attribute '" + CosmosTableConstants.DOCUMENT_ID + "' of " +
+                        "store '" + collectionId + "' holds the document id, hence it should be the only primary " +
+                        "key when '" + CosmosTableConstants.ANNOTATION_ELEMENT_PRIMARY_KEY_ID + "' is enabled. ");
+            }
+        }
+        if (primaryKeys.isEmpty() && attributeNames.contains(CosmosTableConstants.DOCUMENT_ID)) {
+            keyAttributes = Collections.singletonList(CosmosTableConstants.DOCUMENT_ID);
+        } else {
+            keyAttributes = primaryKeys;
+        }
+        if (keyAttributes.equals(Collections.singletonList(CosmosTableConstants.DOCUMENT_ID))) {
+            //The id attribute is stored as the document id as it is, hence no id needs to be composed.
+            primaryKeyPositions = new int[0];
+        } else {
+            primaryKeyPositions = primaryKeys.stream().mapToInt(attributeNames::indexOf).toArray();
+        }
+        String configuredPartitionKey = storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY_ATTRIBUTE);
+        if (!CosmosTableUtils.isEmpty(configuredPartitionKey)) {
+            partitionKeyAttribute = configuredPartitionKey.trim();
+            if (!attributeNames.contains(partitionKeyAttribute)) {
+                throw new SiddhiAppCreationException("Partition key attribute '" + partitionKeyAttribute + "' of " +
+                        "store '" + collectionId + "' is not an attribute of the table. ");
+            }
+            if (!primaryKeys.isEmpty() && !primaryKeys.contains(partitionKeyAttribute)) {
+                throw new SiddhiAppCreationException("Partition key attribute '" + partitionKeyAttribute + "' of " +
+                        "store '" + collectionId + "' should be one of its primary keys, as document ids are only " +
+                        "unique within a partition. ");
+            }
+        }
+    }
+
+    /**
+     * Method for reading the update or insert configuration of the table.
+     *
+     * @param storeAnnotation the source annotation which contains the needed parameters.
+     * @param tableDefinition the definition of the table.
+     */
+    private void initUpsertOptions(Annotation storeAnnotation, TableDefinition tableDefinition) {
+        nativeUpsert = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_NATIVE_UPSERT));
+        if (nativeUpsert && primaryKeyPositions.length == 0) {
+            boolean hasStringId = tableDefinition.getAttributeList().stream().anyMatch(attribute ->
+                    attribute.getName().equals(CosmosTableConstants.DOCUMENT_ID) &&
+                            attribute.getType() == Attribute.Type.STRING);
+            if (!hasStringId) {
+                throw new SiddhiAppCreationException("Parameter '" +
+                        CosmosTableConstants.ANNOTATION_ELEMENT_NATIVE_UPSERT + "' of store '" + collectionId +
+                        "' requires the table to define a '@PrimaryKey' with '" +
+                        CosmosTableConstants.ANNOTATION_ELEMENT_PRIMARY_KEY_ID + "' enabled, or a string attribute " +
+                        "named '" + CosmosTableConstants.DOCUMENT_ID + "'. ");
+            }
+        }
+    }
+
+    /**
+     * Method for reading the asynchronous write configuration of the table.
+     *
+     * @param storeAnnotation the source annotation which contains the needed parameters.
+     */
+    private void initAsyncWriteOptions(Annotation storeAnnotation) {
+        asyncWrite = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_ASYNC_WRITE));
+        asyncWriteQueueSize = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_ASYNC_WRITE_QUEUE_SIZE,
+                CosmosTableConstants.DEFAULT_ASYNC_WRITE_QUEUE_SIZE, 1);
+        asyncWriteWorkerCount = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_ASYNC_WRITE_WORKER_COUNT,
+                CosmosTableConstants.DEFAULT_ASYNC_WRITE_WORKER_COUNT, 1);
+        asyncWriteBatchSize = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_ASYNC_WRITE_BATCH_SIZE,
+                CosmosTableConstants.DEFAULT_ASYNC_WRITE_BATCH_SIZE, 1);
+        asyncWriteLingerMillis = this.readIntegerOption(storeAnnotation,
+                CosmosTableConstants.ANNOTATION_ELEMENT_ASYNC_WRITE_LINGER_MS,
+                CosmosTableConstants.DEFAULT_ASYNC_WRITE_LINGER_MS, 0);
     }
 
     /**
-     * Method for creating Document Client.
+     * Method for resolving the Document Client of the store, which is only acquired once the store connects.
      *
      * @param storeAnnotation the source annotation which contains the needed parameters.
      * @param configReader Returns the value of a system property if set else the default value is returned
@@ -465,6 +922,12 @@ public class CosmosDBEventTable extends AbstractRecordTable {
         String uri = storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_URI);
         String accessKey = storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_KEY);
         ConnectionPolicy connectionPolicy = CosmosTableUtils.generateConnectionPolicy(configReader);
+        if (throttleRetryScheduling) {
+            //Throttled requests are retried by the table, hence the client should return them right away.
+            throttleRetryAttempts = connectionPolicy.getRetryOptions().getMaxRetryAttemptsOnThrottledRequests();
+            throttleRetryWaitSeconds = connectionPolicy.getRetryOptions().getMaxRetryWaitTimeInSeconds();
+            connectionPolicy.getRetryOptions().setMaxRetryAttemptsOnThrottledRequests(0);
+        }
         ConsistencyLevel consistencyLevel = ConsistencyLevel.valueOf(configReader.readConfig(
                 CosmosTableConstants.CONSISTENCY_LEVEL, String.valueOf(ConsistencyLevel.Session)));
         if (CosmosTableUtils.isEmpty(uri)) {
@@ -475,30 +938,59 @@ public class CosmosDBEventTable extends AbstractRecordTable {
                     CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_KEY + "' cannot be empty for store '" +
                     collectionId + "'. ");
         } else {
-            documentClient = new DocumentClient(uri, accessKey, connectionPolicy, consistencyLevel);
+            String clientType = configReader.readConfig(CosmosTableConstants.CLIENT_TYPE,
+                    CosmosTableConstants.CLIENT_TYPE_DOCUMENT_DB);
+            if (CosmosTableConstants.CLIENT_TYPE_IN_MEMORY.equalsIgnoreCase(clientType)) {
+                clientFactory = () -> new InMemoryCosmosClient(uri);
+            } else if (CosmosTableConstants.CLIENT_TYPE_DOCUMENT_DB.equalsIgnoreCase(clientType)) {
+                //Tables of the same account and settings share a single client, which is acquired on connecting.
+                clientFactory = () -> CosmosClientRegistry.acquire(uri, accessKey, connectionPolicy,
+                        consistencyLevel);
+            } else {
+                throw new SiddhiAppCreationException("System parameter '" + CosmosTableConstants.CLIENT_TYPE +
+                        "' of store '" + collectionId + "' should be either '" +
+                        CosmosTableConstants.CLIENT_TYPE_DOCUMENT_DB + "' or '" +
+                        CosmosTableConstants.CLIENT_TYPE_IN_MEMORY + "' but '" + clientType + "' was given. ");
+            }
         }
     }
 
     @Override
     protected void connect() throws ConnectionUnavailableException {
+        if (cosmosClient == null) {
+            cosmosClient = clientFactory.get();
+        }
         String databaseQuery = CosmosTableConstants.SQL_SELECT_FROM_ROOT.replaceFirst(
                 CosmosTableConstants.SQL_QUESTION_MARK, "'" + databaseId + "'");
-        List<Database> databaseList =
-                documentClient.queryDatabases(databaseQuery, feedOptions).getQueryIterable().toList();
+        List<Database> databaseList;
+        try {
+            databaseList = cosmosClient.queryDatabases(databaseQuery, feedOptions);
+        } catch (DocumentClientException e) {
+            throw new ConnectionUnavailableException("Failed to look up database " + databaseId + ". ", e);
+        }
         if (databaseList.size() == 1) {
             Database database = databaseList.get(0);
             String collectionQuery = CosmosTableConstants.SQL_SELECT_FROM_ROOT.replaceFirst(
                     CosmosTableConstants.SQL_QUESTION_MARK, "'" + collectionId + "'");
-            List<DocumentCollection> collectionList = documentClient.queryCollections(database.getSelfLink(),
-                    collectionQuery, feedOptions).getQueryIterable().toList();
+            List<DocumentCollection> collectionList;
+            try {
+                collectionList = cosmosClient.queryCollections(database.getSelfLink(), collectionQuery, feedOptions);
+            } catch (DocumentClientException e) {
+                throw new ConnectionUnavailableException("Failed to look up collection " + collectionId + ". ", e);
+            }
             if (collectionList.size() == 1) {
                 documentCollection = collectionList.get(0);
             } else {
                 try {
                     DocumentCollection collectionDefinition = new DocumentCollection();
                     collectionDefinition.setId(collectionId);
+                    if (partitionKeyAttribute != null) {
+                        PartitionKeyDefinition partitionKeyDefinition = new PartitionKeyDefinition();
+                        partitionKeyDefinition.setPaths(Collections.singletonList("/" + partitionKeyAttribute));
+                        collectionDefinition.setPartitionKey(partitionKeyDefinition);
+                    }
                     try {
-                    documentCollection = documentClient.createCollection(database.getSelfLink(),
+                    documentCollection = cosmosClient.createCollection(database.getSelfLink(),
                             collectionDefinition, requestOptions).getResource();
                     } catch (ClassCastException e) {
                         //Ignored the exception since a Document Collection is returned by createCollection method.
@@ -509,6 +1001,14 @@ public class CosmosDBEventTable extends AbstractRecordTable {
             }
             if (documentCollection != null) {
                 collectionLink = documentCollection.getSelfLink();
+                String collectionPartitionKey = CosmosTableUtils.getPartitionKeyAttribute(documentCollection,
+                        attributeNames);
+                if (partitionKeyAttribute != null && !partitionKeyAttribute.equals(collectionPartitionKey)) {
+                    log.warn("Partition key attribute '" + partitionKeyAttribute + "' of store '" + collectionId +
+                            "' does not match the partition key of the existing collection. Using '" +
+                            collectionPartitionKey + "' instead. ");
+                }
+                partitionKeyAttribute = collectionPartitionKey;
             } else {
                 throw new SiddhiAppCreationException("Failed to find or create the Document collection "
                         + collectionId);
@@ -516,10 +1016,106 @@ public class CosmosDBEventTable extends AbstractRecordTable {
         } else {
             throw new ConnectionUnavailableException("Database " + databaseId + " doesn't exist. ");
         }
+        //Point operations on a partitioned collection need the partition key of the document they address.
+        partitioned = CosmosTableUtils.isPartitioned(documentCollection);
+        partitionKeyResolvable = partitionKeyAttribute != null || !partitioned ||
+                requestOptions.getPartitionKey() != null;
+        if ((bulkInsert || asyncWrite || transactionalBatch || patchUpdate || serverSideUpdate || bulkDelete) &&
+                !partitionKeyResolvable) {
+            //Stored procedures are scoped to a single partition, which cannot be resolved from the events.
+            throw new SiddhiAppCreationException("Collection '" + collectionId + "' is partitioned on a path " +
+                    "which is not a table attribute, hence parameter '" +
+                    CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY + "' is required for the stored " +
+                    "procedures of the store. ");
+        }
+        if (bulkInsert || asyncWrite) {
+            bulkInsertProcedureLink = this.registerStoredProcedure(CosmosTableConstants.BULK_INSERT_PROCEDURE_ID,
+                    CosmosTableConstants.BULK_INSERT_PROCEDURE_BODY, "bulk insert");
+        }
+        if (transactionalBatch) {
+            transactionalBatchProcedureLink = this.registerStoredProcedure(
+                    CosmosTableConstants.TRANSACTIONAL_BATCH_PROCEDURE_ID,
+                    CosmosTableConstants.TRANSACTIONAL_BATCH_PROCEDURE_BODY, "transactional batch");
+        }
+        if (patchUpdate) {
+            patchProcedureLink = this.registerStoredProcedure(CosmosTableConstants.PATCH_PROCEDURE_ID,
+                    CosmosTableConstants.PATCH_PROCEDURE_BODY, "patch");
+        }
+        if (serverSideUpdate) {
+            updateByConditionProcedureLink = this.registerStoredProcedure(
+                    CosmosTableConstants.UPDATE_BY_CONDITION_PROCEDURE_ID,
+                    CosmosTableConstants.UPDATE_BY_CONDITION_PROCEDURE_BODY, "update by condition");
+        }
+        if (bulkDelete) {
+            deleteByConditionProcedureLink = this.registerStoredProcedure(
+                    CosmosTableConstants.DELETE_BY_CONDITION_PROCEDURE_ID,
+                    CosmosTableConstants.DELETE_BY_CONDITION_PROCEDURE_BODY, "delete by condition");
+        }
+        if (asyncWrite && asyncWriter == null) {
+            asyncWriter = new CosmosAsyncWriter(collectionId, asyncWriteQueueSize, asyncWriteWorkerCount,
+                    asyncWriteBatchSize, asyncWriteLingerMillis, this::writeQueuedDocuments);
+            asyncWriter.start();
+        }
+        if (writeParallelism > 1 && writeRouter == null) {
+            writeRouter = new CosmosWriteRouter(collectionId, writeParallelism);
+        }
+        if (documentOperationConcurrency > 1 && documentExecutor == null) {
+            documentExecutor = new CosmosDocumentExecutor(collectionId, documentOperationConcurrency);
+        }
+        if (throttleRetryScheduling && retryScheduler == null) {
+            retryScheduler = new CosmosRetryScheduler(collectionId, throttleRetryAttempts, throttleRetryWaitSeconds,
+                    writeParallelism);
+        }
+        if (queryPrefetchDepth > 0 && prefetchExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            prefetchExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "CosmosDB-Prefetch-" + collectionId + "-" +
+                        threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Method for registering (or refreshing) a stored procedure of the table on the collection.
+     *
+     * @param procedureId   the id of the stored procedure.
+     * @param procedureBody the JavaScript body of the stored procedure.
+     * @param description   what the stored procedure is used for, to be reported if registering it fails.
+     * @return the self link of the stored procedure.
+     */
+    private String registerStoredProcedure(String procedureId, String procedureBody, String description) {
+        StoredProcedure storedProcedure = new StoredProcedure();
+        storedProcedure.setId(procedureId);
+        storedProcedure.setBody(procedureBody);
+        try {
+            return cosmosClient.upsertStoredProcedure(collectionLink, storedProcedure, null).getResource()
+                    .getSelfLink();
+        } catch (DocumentClientException e) {
+            throw new SiddhiAppCreationException("Failed to register the " + description + " stored procedure " +
+                    "on collection '" + collectionId + "'. ", e);
+        }
     }
 
     @Override
     protected void add(List<Object[]> records) {
+        List<Document> documents = buildDocuments(records);
+        if (asyncWriter != null) {
+            asyncWriter.write(documents);
+        } else {
+            writeDocuments(documents);
+        }
+    }
+
+    /**
+     * Method for converting the given records to documents, according to the table's field order.
+     *
+     * @param records the records to be converted.
+     * @return the documents to be written to the collection.
+     */
+    private List<Document> buildDocuments(List<Object[]> records) {
+        List<Document> documents = new ArrayList<>(records.size());
         for (Object[] record : records) {
             Document insertDocument = new Document();
             for (int counter = 0; counter < this.attributeNames.size(); counter++) {
@@ -527,62 +1123,300 @@ public class CosmosDBEventTable extends AbstractRecordTable {
                 Object value = record[counter];
                 insertDocument.set(key, value);
             }
+            if (primaryKeyPositions.length > 0) {
+                insertDocument.setId(CosmosTableUtils.composeDocumentId(record, primaryKeyPositions));
+            }
+            documents.add(insertDocument);
+        }
+        return documents;
+    }
+
+    /**
+     * Method for writing the given documents to the collection.
+     *
+     * @param documents the documents to be created.
+     */
+    private void writeDocuments(List<Document> documents) {
+        this.writePartitions(groupByPartitionKey(documents), this::writePartition);
+    }
+
+    /**
+     * Method for writing a batch of documents drained from the asynchronous write queue. Unless transactional batches
+     * are enabled, each partition of the batch is inserted through the bulk insert stored procedure, as the batch
+     * is not bound to the latency of the Siddhi event thread.
+     *
+     * @param documents the documents to be created.
+     */
+    private void writeQueuedDocuments(List<Document> documents) {
+        this.writePartitions(groupByPartitionKey(documents), transactionalBatch ? this::writePartition :
+                this::bulkInsertDocuments);
+    }
+
+    /**
+     * Method for writing items grouped by partition key value to the collection. When more than one write lane is
+     * configured, the items of different partitions are written in parallel. When throttled requests are retried by
+     * the table, each partition is written as a resumable write of the retry scheduler.
+     *
+     * @param partitions      the items to be written for each partition key value.
+     * @param partitionWriter the writer of the items of a single partition.
+     * @param <T>             the type of the items written.
+     */
+    private <T> void writePartitions(Map<Object, List<T>> partitions, PartitionWriter<T> partitionWriter) {
+        if (retryScheduler != null) {
+            List<Runnable> writes = new ArrayList<>(partitions.size());
+            for (Map.Entry<Object, List<T>> partition : partitions.entrySet()) {
+                AtomicInteger written = new AtomicInteger();
+                writes.add(() -> partitionWriter.write(partition.getKey(), partition.getValue(), written));
+            }
+            retryScheduler.run(writes);
+            return;
+        }
+        if (writeRouter != null && partitions.size() > 1) {
+            writeRouter.route(partitions, (partitionKeyValue, items) ->
+                    partitionWriter.write(partitionKeyValue, items, new AtomicInteger()));
+            return;
+        }
+        for (Map.Entry<Object, List<T>> partition : partitions.entrySet()) {
+            partitionWriter.write(partition.getKey(), partition.getValue(), new AtomicInteger());
+        }
+    }
+
+    /**
+     * Method for writing documents which share a partition key to the collection, in the given order. Writing starts
+     * from the first document not yet written, hence a write which failed part way through can be resumed.
+     *
+     * @param partitionKeyValue the partition key value shared by the documents.
+     * @param documents         the documents to be written.
+     * @param written           the number of documents written so far, advanced as documents are written.
+     */
+    private void writePartition(Object partitionKeyValue, List<Document> documents, AtomicInteger written) {
+        if (transactionalBatch) {
+            List<Map<String, Object>> operations = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                operations.add(toBatchOperation(CosmosTableConstants.BATCH_OPERATION_CREATE, document));
+            }
+            executeTransactionalBatches(partitionKeyValue, operations, written);
+            return;
+        }
+        if (bulkInsert) {
+            bulkInsertDocuments(partitionKeyValue, documents, written);
+            return;
+        }
+        while (written.get() < documents.size()) {
+            Document insertDocument = documents.get(written.get());
             try {
-                documentClient.createDocument(collectionLink, insertDocument, requestOptions,
-                        disableAutomaticIdGeneration);
+                this.meterRequest(CosmosRateLimiter.OPERATION_CREATE, () -> cosmosClient.createDocument(
+                        collectionLink, insertDocument, requestOptions, disableAutomaticIdGeneration),
+                        CosmosResponse::getRequestCharge);
             } catch (DocumentClientException e) {
                 throw new SiddhiAppRuntimeException("Failed to add document to store: '" + collectionId + "'", e);
             }
+            written.incrementAndGet();
+        }
+    }
+
+    /**
+     * Method for grouping documents by the value of the collection's partition key, preserving their order.
+     *
+     * @param documents the documents to be grouped.
+     * @return the documents of each partition key value.
+     */
+    private Map<Object, List<Document>> groupByPartitionKey(List<Document> documents) {
+        Map<Object, List<Document>> partitions = new LinkedHashMap<>();
+        for (Document document : documents) {
+            Object partitionKeyValue = partitionKeyAttribute == null ? null : document.get(partitionKeyAttribute);
+            partitions.computeIfAbsent(partitionKeyValue, value -> new ArrayList<>()).add(document);
+        }
+        return partitions;
+    }
+
+    /**
+     * Method for inserting documents which share a partition key through the bulk insert stored procedure. A single
+     * execution may stop early when it runs out of its time budget, in which case the remaining documents are sent
+     * again.
+     *
+     * @param partitionKeyValue the partition key value shared by the documents.
+     * @param documents         the documents to be inserted.
+     * @param written           the number of documents inserted so far, advanced as documents are inserted.
+     */
+    private void bulkInsertDocuments(Object partitionKeyValue, List<Document> documents, AtomicInteger written) {
+        RequestOptions procedureOptions = this.getProcedureOptions(partitionKeyValue);
+        while (written.get() < documents.size()) {
+            List<Document> batch = documents.subList(written.get(),
+                    Math.min(written.get() + bulkInsertBatchSize, documents.size()));
+            List<Map<String, Object>> pending = new ArrayList<>(batch.size());
+            for (Document document : batch) {
+                pending.add(document.getHashMap());
+            }
+            int created;
+            try {
+                created = Integer.parseInt(this.meterRequest(CosmosRateLimiter.OPERATION_PROCEDURE,
+                        () -> cosmosClient.executeStoredProcedure(bulkInsertProcedureLink, procedureOptions,
+                                new Object[]{pending, disableAutomaticIdGeneration}),
+                        CosmosResponse::getRequestCharge).getResource().trim());
+            } catch (DocumentClientException | NumberFormatException e) {
+                throw new SiddhiAppRuntimeException("Failed to bulk insert documents to store: '" +
+                        collectionId + "'", e);
+            }
+            if (created <= 0) {
+                throw new SiddhiAppRuntimeException("Bulk insert stored procedure of store '" + collectionId +
+                        "' did not insert any of the " + pending.size() + " pending document(s). ");
+            }
+            written.addAndGet(created);
+        }
+    }
+
+    /**
+     * Method for applying operations which share a partition key through the transactional batch stored procedure,
+     * in batches of at most {@value CosmosTableConstants#TRANSACTIONAL_BATCH_MAX_OPERATIONS} operations. Each batch
+     * is applied atomically in a single round trip: either all of its operations are applied, or none of them.
+     *
+     * @param partitionKeyValue the partition key value shared by the operations.
+     * @param operations        the operations to be applied, in order.
+     * @param written           the number of operations applied so far, advanced as batches are applied.
+     */
+    private void executeTransactionalBatches(Object partitionKeyValue, List<Map<String, Object>> operations,
+                                             AtomicInteger written) {
+        RequestOptions procedureOptions = this.getProcedureOptions(partitionKeyValue);
+        while (written.get() < operations.size()) {
+            List<Map<String, Object>> batch = new ArrayList<>(operations.subList(written.get(),
+                    Math.min(written.get() + CosmosTableConstants.TRANSACTIONAL_BATCH_MAX_OPERATIONS,
+                            operations.size())));
+            int applied;
+            try {
+                applied = Integer.parseInt(this.meterRequest(CosmosRateLimiter.OPERATION_PROCEDURE,
+                        () -> cosmosClient.executeStoredProcedure(transactionalBatchProcedureLink, procedureOptions,
+                                new Object[]{batch, disableAutomaticIdGeneration}),
+                        CosmosResponse::getRequestCharge).getResource().trim());
+            } catch (DocumentClientException | NumberFormatException e) {
+                throw new SiddhiAppRuntimeException("Failed to apply a transactional batch of " + batch.size() +
+                        " operation(s) to store: '" + collectionId + "'", e);
+            }
+            if (applied != batch.size()) {
+                throw new SiddhiAppRuntimeException("Transactional batch stored procedure of store '" +
+                        collectionId + "' applied " + applied + " of " + batch.size() + " operation(s). ");
+            }
+            written.addAndGet(applied);
+        }
+    }
+
+    /**
+     * Method for building an operation of the transactional batch stored procedure which writes a whole document.
+     *
+     * @param type     the type of the operation, either a create or an upsert.
+     * @param document the document to be written.
+     * @return the operation.
+     */
+    private static Map<String, Object> toBatchOperation(String type, Document document) {
+        Map<String, Object> operation = new HashMap<>();
+        operation.put(CosmosTableConstants.BATCH_OPERATION_TYPE, type);
+        operation.put(CosmosTableConstants.BATCH_OPERATION_DOCUMENT, document.getHashMap());
+        return operation;
+    }
+
+    /**
+     * Method for building the request options of a stored procedure execution scoped to a partition key value.
+     *
+     * @param partitionKeyValue the partition key value the stored procedure operates on.
+     * @return the request options to be used.
+     */
+    private RequestOptions getProcedureOptions(Object partitionKeyValue) {
+        RequestOptions procedureOptions = new RequestOptions();
+        if (partitionKeyAttribute != null) {
+            procedureOptions.setPartitionKey(new PartitionKey(partitionKeyValue));
+        } else {
+            procedureOptions.setPartitionKey(requestOptions.getPartitionKey());
+        }
+        return procedureOptions;
+    }
+
+    /**
+     * Method for waiting until the documents queued by asynchronous writes have been written, so that reads and
+     * conditional writes which follow an add see the documents it added.
+     */
+    private void flushQueuedDocuments() {
+        if (asyncWriter != null) {
+            asyncWriter.flush();
         }
     }
 
     @Override
     protected RecordIterator<Object[]> find(Map<String, Object> findConditionParameterMap,
                                             CompiledCondition compiledCondition) {
-        List<Document> documentList;
+        CosmosCompiledCondition cosmosCompiledCondition = (CosmosCompiledCondition) compiledCondition;
+        this.flushQueuedDocuments();
         try {
-            documentList = queryDocuments((CosmosCompiledCondition) compiledCondition, findConditionParameterMap);
-        } catch (SQLException e) {
+            if (isKeyLookup(cosmosCompiledCondition, findConditionParameterMap)) {
+                Document document = readDocument(getDocumentLink(cosmosCompiledCondition, findConditionParameterMap),
+                        getKeyLookupOptions(cosmosCompiledCondition, findConditionParameterMap));
+                return new CosmosIterator(document == null ? Collections.emptyList() :
+                        Collections.singletonList(document), this.attributeNames);
+            }
+            return new CosmosIterator(queryDocumentPages(cosmosCompiledCondition.getFindQueryText(),
+                    cosmosCompiledCondition, findConditionParameterMap),
+                    this.attributeNames, prefetchExecutor, queryPrefetchDepth, retryScheduler);
+        } catch (SQLException | DocumentClientException e) {
             throw new SiddhiAppRuntimeException("Error retrieving documents from store '" + collectionId + "'. ",
                     e);
         }
-        return new CosmosIterator(documentList, this.attributeNames);
     }
 
     @Override
     protected boolean contains(Map<String, Object> containsConditionParameterMap,
                                CompiledCondition compiledCondition) {
-        List<Document> documentList;
+        CosmosCompiledCondition cosmosCompiledCondition = (CosmosCompiledCondition) compiledCondition;
+        this.flushQueuedDocuments();
         try {
-            documentList = queryDocuments((CosmosCompiledCondition) compiledCondition, containsConditionParameterMap);
-        } catch (SQLException e) {
+            if (isKeyLookup(cosmosCompiledCondition, containsConditionParameterMap)) {
+                return readDocument(getDocumentLink(cosmosCompiledCondition, containsConditionParameterMap),
+                        getKeyLookupOptions(cosmosCompiledCondition, containsConditionParameterMap)) != null;
+            }
+            //Only the id of the first match is fetched, as no more than its existence is needed.
+            return hasDocuments(queryDocumentPages(cosmosCompiledCondition.getExistsQueryText(),
+                    cosmosCompiledCondition, containsConditionParameterMap));
+        } catch (SQLException | DocumentClientException e) {
             throw new SiddhiAppRuntimeException("Error performing contains check for store '" + collectionId +
                     "'. ", e);
         }
-        if (documentList != null) {
-            return documentList.size() > 0;
-        } else {
-            return false;
-        }
+    }
+
+    /**
+     * Method for checking whether a query yields any documents, fetching no more than the pages needed to find out.
+     *
+     * @param pages the paged query results.
+     * @return true if the query yields at least one document.
+     * @throws DocumentClientException if a page could not be fetched.
+     */
+    private boolean hasDocuments(CosmosQuery pages) throws DocumentClientException {
+        List<Document> page;
+        do {
+            page = retryScheduler == null ? pages.fetchNextPage() : retryScheduler.await(pages::fetchNextPage);
+        } while (page != null && page.isEmpty());
+        return page != null;
     }
 
     @Override
     protected void delete(List<Map<String, Object>> deleteConditionParameterMaps,
                           CompiledCondition compiledCondition) {
+        CosmosCompiledCondition cosmosCompiledCondition = (CosmosCompiledCondition) compiledCondition;
+        this.flushQueuedDocuments();
         try {
             for (Map<String, Object> deleteConditionParameterMap : deleteConditionParameterMaps) {
-                List<Document> documentList = queryDocuments((CosmosCompiledCondition) compiledCondition,
-                        deleteConditionParameterMap);
-                for (Document toDeleteDocument : documentList) {
-                    try {
-                        documentClient.deleteDocument(toDeleteDocument.getSelfLink(), requestOptions);
-                    } catch (DocumentClientException e) {
-                        throw new SiddhiAppRuntimeException("Error performing document deletion for store: '" +
-                                collectionId + "'. ", e);
-                    }
+                if (isKeyLookup(cosmosCompiledCondition, deleteConditionParameterMap)) {
+                    deleteDocument(getDocumentLink(cosmosCompiledCondition, deleteConditionParameterMap),
+                            getKeyLookupOptions(cosmosCompiledCondition, deleteConditionParameterMap));
+                    continue;
+                }
+                if (bulkDelete) {
+                    deleteByCondition(cosmosCompiledCondition, deleteConditionParameterMap);
+                    continue;
                 }
+                List<Document> documentList = queryDocumentReferences(cosmosCompiledCondition,
+                        deleteConditionParameterMap);
+                this.forEachDocument(documentList, toDeleteDocument -> deleteDocument(
+                        toDeleteDocument.getSelfLink(), getDocumentRequestOptions(toDeleteDocument)));
             }
-        } catch (SQLException e) {
+        } catch (SQLException | DocumentClientException e) {
             throw new SiddhiAppRuntimeException("Error performing document deletion for store: '" +
                     collectionId + "'. ", e);
         }
@@ -591,32 +1425,41 @@ public class CosmosDBEventTable extends AbstractRecordTable {
     @Override
     protected void update(CompiledCondition compiledCondition, List<Map<String, Object>> updateConditionParameterMaps,
                           Map<String, CompiledExpression> map, List<Map<String, Object>> updateSetParameterMaps) {
+        CosmosCompiledCondition cosmosCompiledCondition = (CosmosCompiledCondition) compiledCondition;
+        this.flushQueuedDocuments();
         for (int i = 0; i < updateConditionParameterMaps.size(); i++) {
-            Map<String, Object> updateConditionParameterMap = null;
-            for (Map<String, Object> conditionParameters : updateConditionParameterMaps) {
-                updateConditionParameterMap = conditionParameters;
-            }
-            int ordinal = updateConditionParameterMaps.indexOf(updateConditionParameterMap);
-            List<Document> documentList;
+            Map<String, Object> updateConditionParameterMap = updateConditionParameterMaps.get(i);
+            Map<String, Object> updateSetParameterMap = updateSetParameterMaps.get(i);
             try {
-                documentList = queryDocuments((CosmosCompiledCondition) compiledCondition, updateConditionParameterMap);
-            } catch (SQLException e) {
-                throw new SiddhiAppRuntimeException("Error performing document update operations for store '" +
-                        collectionId + "'. ", e);
-            }
-            if (documentList != null) {
-                for (Document toUpdateDocument : documentList) {
-                    try {
-                        for (String key : updateSetParameterMaps.get(ordinal).keySet()) {
-                            Object value = updateSetParameterMaps.get(ordinal).get(key);
-                            toUpdateDocument.set(key, value);
-                        }
-                        documentClient.replaceDocument(toUpdateDocument, requestOptions);
-                    } catch (DocumentClientException e) {
-                        throw new SiddhiAppRuntimeException("Error performing document update operations for store '" +
-                                collectionId + "'. ", e);
+                if (isKeyLookup(cosmosCompiledCondition, updateConditionParameterMap)) {
+                    if (patchUpdate) {
+                        patchDocument(cosmosCompiledCondition, updateConditionParameterMap, updateSetParameterMap);
+                        continue;
                     }
+                    RequestOptions keyLookupOptions = getKeyLookupOptions(cosmosCompiledCondition,
+                            updateConditionParameterMap);
+                    Document toUpdateDocument = readDocument(getDocumentLink(cosmosCompiledCondition,
+                            updateConditionParameterMap), keyLookupOptions);
+                    if (toUpdateDocument != null) {
+                        replaceDocument(toUpdateDocument, updateSetParameterMap, keyLookupOptions);
+                    }
+                    continue;
+                }
+                if (serverSideUpdate && isSinglePartition(cosmosCompiledCondition)) {
+                    updateByCondition(cosmosCompiledCondition, updateConditionParameterMap, updateSetParameterMap);
+                    continue;
                 }
+                if (patchUpdate) {
+                    patchDocuments(queryDocumentReferences(cosmosCompiledCondition, updateConditionParameterMap),
+                            updateSetParameterMap);
+                    continue;
+                }
+                List<Document> documentList = queryDocuments(cosmosCompiledCondition, updateConditionParameterMap);
+                this.forEachDocument(documentList, toUpdateDocument -> replaceDocument(toUpdateDocument,
+                        updateSetParameterMap, getDocumentRequestOptions(toUpdateDocument)));
+            } catch (SQLException | DocumentClientException e) {
+                throw new SiddhiAppRuntimeException("Error performing document update operations for store '" +
+                        collectionId + "'. ", e);
             }
         }
     }
@@ -626,38 +1469,565 @@ public class CosmosDBEventTable extends AbstractRecordTable {
                                List<Map<String, Object>> updateConditionParameterMaps,
                                Map<String, CompiledExpression> map, List<Map<String, Object>> updateSetParameterMaps,
                                List<Object[]> addingDocuments) {
+        CosmosCompiledCondition cosmosCompiledCondition = (CosmosCompiledCondition) compiledCondition;
+        //Documents still queued by add() must also precede the fallback inserts.
+        this.flushQueuedDocuments();
+        boolean upsert = isNativeUpsert(cosmosCompiledCondition, map) && isUpsertOfMatchingDocuments(
+                cosmosCompiledCondition, updateConditionParameterMaps, buildDocuments(addingDocuments));
+        if (transactionalBatch && (upsert || updateConditionParameterMaps.stream().allMatch(
+                updateConditionParameterMap -> isKeyLookup(cosmosCompiledCondition, updateConditionParameterMap)))) {
+            updateOrAddInBatches(cosmosCompiledCondition, upsert, updateConditionParameterMaps,
+                    updateSetParameterMaps, addingDocuments);
+            return;
+        }
+        if (upsert) {
+            upsertDocuments(buildDocuments(addingDocuments));
+            return;
+        }
         for (int i = 0; i < updateConditionParameterMaps.size(); i++) {
-            Map<String, Object> updateOrAddConditionParameterMap = null;
-            for (Map<String, Object> conditionParameters : updateConditionParameterMaps) {
-                updateOrAddConditionParameterMap = conditionParameters;
-            }
-            int ordinal = updateConditionParameterMaps.indexOf(updateOrAddConditionParameterMap);
-            List<Document> documentList;
+            Map<String, Object> updateOrAddConditionParameterMap = updateConditionParameterMaps.get(i);
+            Map<String, Object> updateSetParameterMap = updateSetParameterMaps.get(i);
             try {
-                documentList = queryDocuments((CosmosCompiledCondition) compiledCondition,
-                        updateOrAddConditionParameterMap);
-            } catch (SQLException e) {
-                throw new SiddhiAppRuntimeException("Error performing update/insert operations for store '" +
-                        collectionId + "'. ", e);
-            }
-            if (documentList != null) {
-                if (documentList.size() > 0) {
-                    for (Document toUpdateDocument : documentList) {
-                        try {
-                            for (String key : updateSetParameterMaps.get(ordinal).keySet()) {
-                                Object value = updateSetParameterMaps.get(ordinal).get(key);
-                                toUpdateDocument.set(key, value);
-                            }
-                            documentClient.replaceDocument(toUpdateDocument, requestOptions);
-                        } catch (DocumentClientException e) {
-                            throw new SiddhiAppRuntimeException("Error performing update/insert operations for " +
-                                    "store '" + collectionId + "'. ", e);
-                        }
+                boolean updated = false;
+                if (isKeyLookup(cosmosCompiledCondition, updateOrAddConditionParameterMap) && patchUpdate) {
+                    updated = patchDocument(cosmosCompiledCondition, updateOrAddConditionParameterMap,
+                            updateSetParameterMap);
+                } else if (isKeyLookup(cosmosCompiledCondition, updateOrAddConditionParameterMap)) {
+                    RequestOptions keyLookupOptions = getKeyLookupOptions(cosmosCompiledCondition,
+                            updateOrAddConditionParameterMap);
+                    Document toUpdateDocument = readDocument(getDocumentLink(cosmosCompiledCondition,
+                            updateOrAddConditionParameterMap), keyLookupOptions);
+                    if (toUpdateDocument != null) {
+                        replaceDocument(toUpdateDocument, updateSetParameterMap, keyLookupOptions);
+                        updated = true;
                     }
+                } else if (patchUpdate) {
+                    updated = patchDocuments(queryDocumentReferences(cosmosCompiledCondition,
+                            updateOrAddConditionParameterMap), updateSetParameterMap);
                 } else {
-                    add(addingDocuments);
+                    List<Document> documentList = queryDocuments(cosmosCompiledCondition,
+                            updateOrAddConditionParameterMap);
+                    this.forEachDocument(documentList, toUpdateDocument -> replaceDocument(toUpdateDocument,
+                            updateSetParameterMap, getDocumentRequestOptions(toUpdateDocument)));
+                    updated = !documentList.isEmpty();
+                }
+                if (!updated) {
+                    writeDocuments(buildDocuments(Collections.singletonList(addingDocuments.get(i))));
                 }
+            } catch (SQLException | DocumentClientException e) {
+                throw new SiddhiAppRuntimeException("Error performing update/insert operations for store '" +
+                        collectionId + "'. ", e);
+            }
+        }
+    }
+
+    /**
+     * Method for updating or inserting events through the transactional batch stored procedure. Events are grouped by
+     * partition key value, and the operations of each partition are applied in batches, each in a single round trip
+     * and atomically. An event either upserts its document as a whole, or updates the document its key lookup
+     * condition refers to and inserts its document if there is none.
+     *
+     * @param compiledCondition            the compiled condition, which is a key lookup unless upserts are native.
+     * @param upsert                       whether the documents of the events are upserted as a whole.
+     * @param updateConditionParameterMaps the runtime values of the condition, for each event.
+     * @param updateSetParameterMaps       the attribute values to be set, for each event.
+     * @param addingDocuments              the records to be inserted, for each event.
+     */
+    private void updateOrAddInBatches(CosmosCompiledCondition compiledCondition, boolean upsert,
+                                      List<Map<String, Object>> updateConditionParameterMaps,
+                                      List<Map<String, Object>> updateSetParameterMaps,
+                                      List<Object[]> addingDocuments) {
+        List<Document> documents = buildDocuments(addingDocuments);
+        Map<Object, List<Map<String, Object>>> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            Map<String, Object> operation;
+            Object partitionKeyValue;
+            if (upsert) {
+                operation = toBatchOperation(CosmosTableConstants.BATCH_OPERATION_UPSERT, document);
+                partitionKeyValue = partitionKeyAttribute == null ? null : document.get(partitionKeyAttribute);
+            } else {
+                Map<String, Object> conditionParameterMap = updateConditionParameterMaps.get(i);
+                operation = toBatchOperation(CosmosTableConstants.BATCH_OPERATION_UPDATE_OR_CREATE, document);
+                operation.put(CosmosTableConstants.BATCH_OPERATION_ID,
+                        getDocumentId(compiledCondition, conditionParameterMap));
+                operation.put(CosmosTableConstants.BATCH_OPERATION_SET, updateSetParameterMaps.get(i));
+                partitionKeyValue = getKeyLookupPartitionKeyValue(compiledCondition, conditionParameterMap);
+            }
+            partitions.computeIfAbsent(partitionKeyValue, value -> new ArrayList<>()).add(operation);
+        }
+        this.writePartitions(partitions, this::executeTransactionalBatches);
+    }
+
+    /**
+     * Method which checks whether an update or insert operation can be performed as a native upsert, i.e. whether its
+     * condition matches the document on the key the upserted document is identified by, and its set clause assigns
+     * every attribute, each key attribute being set from the very value the condition compares it with, so that
+     * replacing the document as a whole matches the result of updating it.
+     *
+     * @param compiledCondition    the compiled condition of the update or insert operation.
+     * @param updateSetExpressions the compiled set clause of the update or insert operation, by attribute name.
+     * @return true if the operation can be performed by upserting the inserted documents.
+     */
+    private boolean isNativeUpsert(CosmosCompiledCondition compiledCondition,
+                                   Map<String, CompiledExpression> updateSetExpressions) {
+        if (!nativeUpsert || compiledCondition.getKeyParameters() == null ||
+                !updateSetExpressions.keySet().containsAll(attributeNames)) {
+            return false;
+        }
+        for (int i = 0; i < keyAttributes.size(); i++) {
+            //A key attribute set from any other expression would move the document to another key.
+            CosmosCompiledCondition setExpression = (CosmosCompiledCondition) updateSetExpressions.get(
+                    keyAttributes.get(i));
+            if (setExpression.getParameters().size() != 1 ||
+                    !setExpression.getCompiledQuery().trim().equals(CosmosTableConstants.SQL_PARAMETER_PREFIX + 1) ||
+                    !CosmosTableUtils.isSameParameter(setExpression.getParameters().get(1),
+                            compiledCondition.getKeyParameters().get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method which checks whether each of the documents to be upserted is identified by the key the condition of its
+     * event matches, in the partition the condition refers to, so that upserting it replaces the matching document.
+     *
+     * @param compiledCondition            the key lookup condition of the update or insert operation.
+     * @param updateConditionParameterMaps the runtime values of the condition, for each event.
+     * @param documents                    the documents to be upserted, for each event.
+     * @return true if every document replaces the document its condition matches, if there is one.
+     */
+    private boolean isUpsertOfMatchingDocuments(CosmosCompiledCondition compiledCondition,
+                                                List<Map<String, Object>> updateConditionParameterMaps,
+                                                List<Document> documents) {
+        Object partitionKeyParameter = partitionKeyAttribute == null ? null :
+                compiledCondition.getEqualityParameters().get(partitionKeyAttribute);
+        for (int i = 0; i < documents.size(); i++) {
+            Map<String, Object> conditionParameterMap = updateConditionParameterMaps.get(i);
+            Document document = documents.get(i);
+            if (!getDocumentId(compiledCondition, conditionParameterMap).equals(document.getId())) {
+                return false;
+            }
+            if (partitionKeyParameter != null && !Objects.equals(CosmosTableUtils.resolveParameterValue(
+                    partitionKeyParameter, conditionParameterMap), document.get(partitionKeyAttribute))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method which checks whether a compiled condition can be served by addressing a single document by its link,
+     * i.e. whether it is a pure equality on the key attributes and, for partitioned collections, the partition key.
+     * Collections partitioned on a path which is not a table attribute are only addressed by point operations when
+     * the partition key is configured through the request options.
+     *
+     * @param compiledCondition the compiled condition to be checked.
+     * @return true if the condition can be served by a point operation.
+     */
+    private boolean isKeyLookup(CosmosCompiledCondition compiledCondition) {
+        return partitionKeyResolvable && compiledCondition.getKeyParameters() != null &&
+                (partitionKeyAttribute == null ||
+                        compiledCondition.getEqualityParameters().containsKey(partitionKeyAttribute));
+    }
+
+    /**
+     * Method which checks whether the single document a key lookup condition refers to, given the runtime values of
+     * the condition, can be addressed by its name based link. Document ids which are not composed by the table may
+     * hold characters which would be decoded on the way to the service, in which case the document is queried for.
+     *
+     * @param compiledCondition     the compiled condition to be checked.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return true if the condition can be served by a point operation on the document link.
+     */
+    private boolean isKeyLookup(CosmosCompiledCondition compiledCondition, Map<String, Object> conditionParameterMap) {
+        return isKeyLookup(compiledCondition) && (primaryKeyPositions.length > 0 ||
+                CosmosTableUtils.isLinkSafe(getDocumentId(compiledCondition, conditionParameterMap)));
+    }
+
+    /**
+     * Method for building the link of the single document a key lookup condition refers to.
+     *
+     * @param compiledCondition     the key lookup condition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the name based link of the document.
+     */
+    private String getDocumentLink(CosmosCompiledCondition compiledCondition,
+                                   Map<String, Object> conditionParameterMap) {
+        return String.format(CosmosTableConstants.DOCUMENT_LINK_FORMAT, databaseId, collectionId,
+                getDocumentId(compiledCondition, conditionParameterMap));
+    }
+
+    /**
+     * Method for resolving the id of the single document a key lookup condition refers to.
+     *
+     * @param compiledCondition     the key lookup condition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the id of the document.
+     */
+    private String getDocumentId(CosmosCompiledCondition compiledCondition,
+                                 Map<String, Object> conditionParameterMap) {
+        List<Object> keyValues = new ArrayList<>(compiledCondition.getKeyParameters().size());
+        for (Object keyParameter : compiledCondition.getKeyParameters()) {
+            keyValues.add(CosmosTableUtils.resolveParameterValue(keyParameter, conditionParameterMap));
+        }
+        return primaryKeyPositions.length > 0 ? CosmosTableUtils.composeDocumentId(keyValues) :
+                String.valueOf(keyValues.get(0));
+    }
+
+    /**
+     * Method for building the request options of a point operation on the document a key lookup condition refers to.
+     *
+     * @param compiledCondition     the key lookup condition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the request options scoped to the partition of the document.
+     */
+    private RequestOptions getKeyLookupOptions(CosmosCompiledCondition compiledCondition,
+                                               Map<String, Object> conditionParameterMap) {
+        if (partitionKeyAttribute == null) {
+            return requestOptions;
+        }
+        return getRequestOptions(getKeyLookupPartitionKeyValue(compiledCondition, conditionParameterMap));
+    }
+
+    /**
+     * Method for resolving the partition key value of the document a key lookup condition refers to.
+     *
+     * @param compiledCondition     the key lookup condition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the partition key value, or null if the collection is not partitioned by an attribute.
+     */
+    private Object getKeyLookupPartitionKeyValue(CosmosCompiledCondition compiledCondition,
+                                                 Map<String, Object> conditionParameterMap) {
+        if (partitionKeyAttribute == null) {
+            return null;
+        }
+        return CosmosTableUtils.resolveParameterValue(
+                compiledCondition.getEqualityParameters().get(partitionKeyAttribute), conditionParameterMap);
+    }
+
+    /**
+     * Method for building the request options of a point operation on the given document.
+     *
+     * @param document the document the operation is performed on.
+     * @return the request options scoped to the partition of the document.
+     */
+    private RequestOptions getDocumentRequestOptions(Document document) {
+        if (partitionKeyAttribute == null) {
+            return requestOptions;
+        }
+        return getRequestOptions(document.get(partitionKeyAttribute));
+    }
+
+    /**
+     * Method for building the request options of a point operation on a document of the given partition.
+     *
+     * @param partitionKeyValue the partition key value of the document.
+     * @return the request options to be used.
+     */
+    private RequestOptions getRequestOptions(Object partitionKeyValue) {
+        if (partitionKeyAttribute == null) {
+            return requestOptions;
+        }
+        RequestOptions partitionRequestOptions = new RequestOptions();
+        requestOptionsInitializer.accept(partitionRequestOptions);
+        partitionRequestOptions.setPartitionKey(new PartitionKey(partitionKeyValue));
+        return partitionRequestOptions;
+    }
+
+    /**
+     * Method for reading a single document by its link.
+     *
+     * @param documentLink the link of the document.
+     * @param options      the request options scoped to the partition of the document.
+     * @return the document, or null if it does not exist.
+     * @throws DocumentClientException if the document could not be read.
+     */
+    private Document readDocument(String documentLink, RequestOptions options) throws DocumentClientException {
+        try {
+            return this.executeRequest(CosmosRateLimiter.OPERATION_READ,
+                    () -> cosmosClient.readDocument(documentLink, options), CosmosResponse::getRequestCharge)
+                    .getResource();
+        } catch (DocumentClientException e) {
+            if (e.getStatusCode() == CosmosTableConstants.STATUS_CODE_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Method for deleting a single document by its link. Documents which no longer exist are ignored.
+     *
+     * @param documentLink the link of the document.
+     * @param options      the request options scoped to the partition of the document.
+     * @throws DocumentClientException if the document could not be deleted.
+     */
+    private void deleteDocument(String documentLink, RequestOptions options) throws DocumentClientException {
+        try {
+            this.executeRequest(CosmosRateLimiter.OPERATION_DELETE,
+                    () -> cosmosClient.deleteDocument(documentLink, options), CosmosResponse::getRequestCharge);
+        } catch (DocumentClientException e) {
+            if (e.getStatusCode() != CosmosTableConstants.STATUS_CODE_NOT_FOUND) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Method for applying the given set values to a document and replacing it in the collection.
+     *
+     * @param toUpdateDocument      the document to be updated.
+     * @param updateSetParameterMap the attribute values to be set.
+     * @param options               the request options scoped to the partition of the document.
+     * @throws DocumentClientException if the document could not be replaced.
+     */
+    private void replaceDocument(Document toUpdateDocument, Map<String, Object> updateSetParameterMap,
+                                 RequestOptions options) throws DocumentClientException {
+        for (Map.Entry<String, Object> setValue : updateSetParameterMap.entrySet()) {
+            toUpdateDocument.set(setValue.getKey(), setValue.getValue());
+        }
+        this.executeRequest(CosmosRateLimiter.OPERATION_REPLACE,
+                () -> cosmosClient.replaceDocument(toUpdateDocument, options), CosmosResponse::getRequestCharge);
+    }
+
+    /**
+     * Method for setting the given attribute values on the document a key lookup condition refers to through the
+     * patch stored procedure. Only the set values are sent, and the document is read and replaced within its
+     * partition, hence it is never transferred in full.
+     *
+     * @param compiledCondition     the key lookup condition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @param updateSetParameterMap the attribute values to be set.
+     * @return true if the document existed and has been updated.
+     * @throws DocumentClientException if the document could not be updated.
+     */
+    private boolean patchDocument(CosmosCompiledCondition compiledCondition, Map<String, Object> conditionParameterMap,
+                                  Map<String, Object> updateSetParameterMap) throws DocumentClientException {
+        return patchDocument(getDocumentId(compiledCondition, conditionParameterMap),
+                getKeyLookupPartitionKeyValue(compiledCondition, conditionParameterMap), updateSetParameterMap);
+    }
+
+    /**
+     * Method for setting the given attribute values on each of the referenced documents through the patch stored
+     * procedure.
+     *
+     * @param references            the references to the documents, carrying their ids and partition key values.
+     * @param updateSetParameterMap the attribute values to be set.
+     * @return true if any of the documents still existed and has been updated.
+     * @throws DocumentClientException if a document could not be updated.
+     */
+    private boolean patchDocuments(List<Document> references, Map<String, Object> updateSetParameterMap)
+            throws DocumentClientException {
+        AtomicBoolean patched = new AtomicBoolean();
+        this.forEachDocument(references, reference -> {
+            Object partitionKeyValue = partitionKeyAttribute == null ? null : reference.get(partitionKeyAttribute);
+            if (patchDocument(reference.getId(), partitionKeyValue, updateSetParameterMap)) {
+                patched.set(true);
+            }
+        });
+        return patched.get();
+    }
+
+    /**
+     * Method for performing an operation on each of the given documents. When a document operation concurrency is
+     * configured, the operations are performed concurrently and fail as soon as any of them fails.
+     *
+     * @param documents the documents to be operated on.
+     * @param operation the operation to be performed on a single document.
+     * @throws DocumentClientException if the operation failed on any of the documents.
+     */
+    private void forEachDocument(List<Document> documents, CosmosDocumentExecutor.Operation<Document> operation)
+            throws DocumentClientException {
+        if (documentExecutor != null && documents.size() > 1) {
+            documentExecutor.execute(documents, operation);
+            return;
+        }
+        for (Document document : documents) {
+            operation.apply(document);
+        }
+    }
+
+    /**
+     * Method for setting the given attribute values on a document through the patch stored procedure.
+     *
+     * @param documentId            the id of the document.
+     * @param partitionKeyValue     the partition key value of the document.
+     * @param updateSetParameterMap the attribute values to be set.
+     * @return true if the document existed and has been updated.
+     * @throws DocumentClientException if the document could not be updated.
+     */
+    private boolean patchDocument(String documentId, Object partitionKeyValue,
+                                  Map<String, Object> updateSetParameterMap) throws DocumentClientException {
+        RequestOptions procedureOptions = this.getProcedureOptions(partitionKeyValue);
+        Object[] procedureParams = {documentId, updateSetParameterMap};
+        String patched = this.executeRequest(CosmosRateLimiter.OPERATION_PROCEDURE,
+                () -> cosmosClient.executeStoredProcedure(patchProcedureLink, procedureOptions, procedureParams),
+                CosmosResponse::getRequestCharge).getResource();
+        return !"0".equals(patched.trim());
+    }
+
+    /**
+     * Method which checks whether the documents matching a compiled condition all lie in a single partition, which
+     * is the scope a stored procedure executes in.
+     *
+     * @param compiledCondition the compiled condition to be checked.
+     * @return true if the condition can be evaluated by a stored procedure.
+     */
+    private boolean isSinglePartition(CosmosCompiledCondition compiledCondition) {
+        return partitionKeyAttribute == null ||
+                compiledCondition.getEqualityParameters().containsKey(partitionKeyAttribute);
+    }
+
+    /**
+     * Method which checks whether a query on the documents matching a compiled condition is served by a single
+     * partition, either as the collection is not partitioned, or as the query is scoped to the partition key given
+     * through the feed options or compared for equality by the condition.
+     *
+     * @param compiledCondition the compiled condition to be checked.
+     * @return true if the query is served by a single partition.
+     */
+    private boolean isSinglePartitionQuery(CosmosCompiledCondition compiledCondition) {
+        return !partitioned || feedOptions.getPartitionKey() != null || (partitionKeyAttribute != null &&
+                compiledCondition.getEqualityParameters().containsKey(partitionKeyAttribute));
+    }
+
+    /**
+     * Method for setting the given attribute values on all documents matching a condition through the update by
+     * condition stored procedure, which queries and replaces the documents within their partition. Documents which
+     * already hold the values being set are left out of the query, hence replaced documents drop out of its results
+     * and the query is run again from the start, instead of resuming from a continuation over results which have
+     * changed since. When the stored procedure runs out of its time budget, it is executed again until the query no
+     * longer matches any document.
+     *
+     * @param compiledCondition     the compiled condition, which is scoped to a single partition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @param updateSetParameterMap the attribute values to be set.
+     * @throws DocumentClientException if the documents could not be updated.
+     */
+    private void updateByCondition(CosmosCompiledCondition compiledCondition, Map<String, Object> conditionParameterMap,
+                                   Map<String, Object> updateSetParameterMap) throws DocumentClientException {
+        if (updateSetParameterMap.isEmpty()) {
+            return;
+        }
+        List<String> unchangedAttributes = new ArrayList<>();
+        List<SqlParameter> setParameters = new ArrayList<>();
+        for (Map.Entry<String, Object> setValue : updateSetParameterMap.entrySet()) {
+            String parameterName = CosmosTableConstants.SQL_SET_PARAMETER_PREFIX + setParameters.size();
+            unchangedAttributes.add(String.format(CosmosTableConstants.SQL_UNCHANGED_ATTRIBUTE,
+                    CosmosTableUtils.toPropertyReference(collectionId, setValue.getKey()), parameterName));
+            setParameters.add(new SqlParameter(parameterName, setValue.getValue()));
+        }
+        String queryText = String.format(CosmosTableConstants.SQL_SELECT_OUTDATED, collectionId,
+                compiledCondition.getCompiledQuery(), String.join(CosmosTableConstants.SQL_AND, unchangedAttributes));
+        SqlQuerySpec query = CosmosTableUtils.buildQuerySpec(queryText, compiledCondition, conditionParameterMap);
+        for (SqlParameter setParameter : setParameters) {
+            query.getParameters().add(setParameter);
+        }
+        Object[] procedureParams = {CosmosTableUtils.toProcedureQuery(query), updateSetParameterMap};
+        this.executeUntilDone(updateByConditionProcedureLink, "Update by condition",
+                getKeyLookupPartitionKeyValue(compiledCondition, conditionParameterMap), procedureParams);
+    }
+
+    /**
+     * Method for deleting all documents matching a condition through the delete by condition stored procedure, which
+     * queries and deletes the documents within a partition. As deleted documents drop out of the results of the
+     * query, it is run again from the start instead of resuming from a continuation, until it no longer matches any
+     * document. When the condition is not scoped to a single partition, only the partition key values of the matching
+     * documents are queried, and the stored procedure is executed on each of their partitions in turn.
+     *
+     * @param compiledCondition     the compiled condition.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @throws SQLException            if the query could not be built.
+     * @throws DocumentClientException if the documents could not be deleted.
+     */
+    private void deleteByCondition(CosmosCompiledCondition compiledCondition, Map<String, Object> conditionParameterMap)
+            throws SQLException, DocumentClientException {
+        SqlQuerySpec query = CosmosTableUtils.buildQuerySpec(compiledCondition.getQueryText(), compiledCondition,
+                conditionParameterMap);
+        Map<String, Object> procedureQuery = CosmosTableUtils.toProcedureQuery(query);
+        Collection<Object> partitionKeyValues;
+        if (isSinglePartition(compiledCondition)) {
+            partitionKeyValues = Collections.singletonList(
+                    getKeyLookupPartitionKeyValue(compiledCondition, conditionParameterMap));
+        } else {
+            //Only the distinct partition key values of the matches are fetched.
+            String partitionKeyQueryText = String.format(CosmosTableConstants.SQL_SELECT_DISTINCT_ATTRIBUTES,
+                    CosmosTableUtils.toPropertyReference(collectionId, partitionKeyAttribute), collectionId,
+                    compiledCondition.getCompiledQuery());
+            partitionKeyValues = new LinkedHashSet<>();
+            for (Document match : queryDocuments(new SqlQuerySpec(partitionKeyQueryText, query.getParameters()),
+                    feedOptions)) {
+                partitionKeyValues.add(match.get(partitionKeyAttribute));
+            }
+        }
+        Object[] procedureParams = {procedureQuery};
+        for (Object partitionKeyValue : partitionKeyValues) {
+            this.executeUntilDone(deleteByConditionProcedureLink, "Delete by condition", partitionKeyValue,
+                    procedureParams);
+        }
+    }
+
+    /**
+     * Method for executing a stored procedure which works through the results of a query within a partition, until
+     * it reports that it is done. As the stored procedure runs the query from the start on each execution, it is
+     * executed again with the same arguments whenever it runs out of its time budget.
+     *
+     * @param procedureLink     the self link of the stored procedure.
+     * @param description       what the stored procedure does, to be reported if it makes no progress.
+     * @param partitionKeyValue the partition key value of the partition the stored procedure operates on.
+     * @param procedureParams   the arguments of each execution.
+     * @throws DocumentClientException if the stored procedure failed.
+     */
+    private void executeUntilDone(String procedureLink, String description, Object partitionKeyValue,
+                                  Object[] procedureParams) throws DocumentClientException {
+        RequestOptions procedureOptions = this.getProcedureOptions(partitionKeyValue);
+        while (true) {
+            Document result = new Document(this.executeRequest(CosmosRateLimiter.OPERATION_PROCEDURE,
+                    () -> cosmosClient.executeStoredProcedure(procedureLink, procedureOptions, procedureParams),
+                    CosmosResponse::getRequestCharge).getResource());
+            if (Boolean.TRUE.equals(result.getBoolean(CosmosTableConstants.PROCEDURE_RESULT_DONE))) {
+                return;
+            }
+            Integer count = result.getInt(CosmosTableConstants.PROCEDURE_RESULT_COUNT);
+            if (count == null || count == 0) {
+                throw new SiddhiAppRuntimeException(description + " stored procedure of store '" + collectionId +
+                        "' stopped without making progress. ");
+            }
+        }
+    }
+
+    /**
+     * Method for creating or replacing the given documents, each with a single request keyed by its id. Documents
+     * are written by partition through the same write path as inserted documents.
+     *
+     * @param documents the documents to be upserted.
+     */
+    private void upsertDocuments(List<Document> documents) {
+        this.writePartitions(groupByPartitionKey(documents), this::upsertPartition);
+    }
+
+    /**
+     * Method for creating or replacing documents which share a partition key, in the given order. Writing starts from
+     * the first document not yet upserted, hence a write which failed part way through can be resumed.
+     *
+     * @param partitionKeyValue the partition key value shared by the documents.
+     * @param documents         the documents to be upserted.
+     * @param written           the number of documents upserted so far, advanced as documents are upserted.
+     */
+    private void upsertPartition(Object partitionKeyValue, List<Document> documents, AtomicInteger written) {
+        while (written.get() < documents.size()) {
+            Document upsertDocument = documents.get(written.get());
+            try {
+                this.meterRequest(CosmosRateLimiter.OPERATION_UPSERT,
+                        () -> cosmosClient.upsertDocument(collectionLink, upsertDocument, requestOptions, true),
+                        CosmosResponse::getRequestCharge);
+            } catch (DocumentClientException e) {
+                throw new SiddhiAppRuntimeException("Error performing update/insert operations for store '" +
+                        collectionId + "'. ", e);
             }
+            written.incrementAndGet();
         }
     }
 
@@ -665,10 +2035,189 @@ public class CosmosDBEventTable extends AbstractRecordTable {
     protected CompiledCondition compileCondition(ExpressionBuilder expressionBuilder) {
         CosmosConditionVisitor visitor = new CosmosConditionVisitor(this.collectionId, false);
         expressionBuilder.build(visitor);
-        return new CosmosCompiledCondition(visitor.returnCondition(), visitor.getParameters(),
+        String condition = visitor.returnCondition();
+        return new CosmosCompiledCondition(condition,
+                String.format(CosmosTableConstants.SQL_SELECT, collectionId, condition),
+                String.format(CosmosTableConstants.SQL_SELECT_ATTRIBUTES, attributeProjection, collectionId, condition),
+                String.format(CosmosTableConstants.SQL_SELECT_EXISTS, collectionId, condition), visitor.getParameters(),
+                visitor.getEqualityParameters(), this.getKeyParameters(visitor),
                 expressionBuilder.getUpdateOrInsertReducer(), expressionBuilder.getInMemorySetExpressionExecutor());
     }
 
+    /**
+     * Method which checks whether a visited condition identifies a single document, i.e. whether it is a pure
+     * equality on all key attributes, optionally along with the partition key attribute.
+     *
+     * @param visitor the visitor which has been used to build the condition.
+     * @return the parameters the key attributes are compared to, in key order, or null if the condition is not a key
+     * lookup.
+     */
+    private List<Object> getKeyParameters(CosmosConditionVisitor visitor) {
+        if (keyAttributes.isEmpty() || !visitor.isPureEquality()) {
+            return null;
+        }
+        Map<String, Object> equalityParameters = visitor.getEqualityParameters();
+        for (String equalityAttribute : equalityParameters.keySet()) {
+            if (!keyAttributes.contains(equalityAttribute) && !equalityAttribute.equals(partitionKeyAttribute)) {
+                return null;
+            }
+        }
+        List<Object> keyParameters = new ArrayList<>(keyAttributes.size());
+        for (String keyAttribute : keyAttributes) {
+            Object keyParameter = equalityParameters.get(keyAttribute);
+            if (keyParameter == null) {
+                return null;
+            }
+            keyParameters.add(keyParameter);
+        }
+        return keyParameters;
+    }
+
+    @Override
+    protected CompiledSelection compileSelection(List<SelectAttributeBuilder> selectAttributeBuilders,
+                                                 List<ExpressionBuilder> groupByExpressionBuilder,
+                                                 ExpressionBuilder havingExpressionBuilder,
+                                                 List<OrderByAttributeBuilder> orderByAttributeBuilders, Long limit,
+                                                 Long offset) {
+        if (havingExpressionBuilder != null) {
+            throw new QueryableRecordTableException("The CosmosDB Event table does not support 'having' in " +
+                    "queries on store '" + collectionId + "'. ");
+        }
+        if (offset != null && limit == null) {
+            throw new QueryableRecordTableException("The CosmosDB Event table does not support 'offset' without " +
+                    "'limit' in queries on store '" + collectionId + "'. ");
+        }
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        Map<String, String> selectExpressions = new LinkedHashMap<>();
+        List<String> nonAggregatedExpressions = new ArrayList<>();
+        for (int i = 0; i < selectAttributeBuilders.size(); i++) {
+            SelectAttributeBuilder selectAttributeBuilder = selectAttributeBuilders.get(i);
+            CosmosConditionVisitor visitor = this.visitSelection(selectAttributeBuilder.getExpressionBuilder(),
+                    false, CosmosTableConstants.SQL_SELECTION_PARAMETER_PREFIX + i + "_", parameters);
+            if (!CosmosTableUtils.isAlias(selectAttributeBuilder.getRename())) {
+                //Aliases cannot be quoted, hence Siddhi processes the query itself.
+                throw new QueryableRecordTableException("The CosmosDB Event table cannot name the output " +
+                        "attribute '" + selectAttributeBuilder.getRename() + "' in queries on store '" +
+                        collectionId + "', as it is a reserved word of the Cosmos DB SQL dialect. ");
+            }
+            selectExpressions.put(selectAttributeBuilder.getRename(), visitor.returnCondition());
+            if (!visitor.isAggregation()) {
+                nonAggregatedExpressions.add(visitor.returnCondition());
+            }
+        }
+        String groupByClause = null;
+        if (groupByExpressionBuilder != null && !groupByExpressionBuilder.isEmpty()) {
+            List<String> groupByExpressions = new ArrayList<>();
+            for (int i = 0; i < groupByExpressionBuilder.size(); i++) {
+                groupByExpressions.add(this.visitSelection(groupByExpressionBuilder.get(i), false,
+                        CosmosTableConstants.SQL_SELECTION_PARAMETER_PREFIX + "g" + i + "_", parameters)
+                        .returnCondition());
+            }
+            //Cosmos DB only allows grouping keys and aggregates to be selected from a grouped query.
+            if (!groupByExpressions.containsAll(nonAggregatedExpressions)) {
+                throw new QueryableRecordTableException("The CosmosDB Event table only supports selecting " +
+                        "aggregates and 'group by' attributes from grouped queries on store '" + collectionId + "'. ");
+            }
+            if (orderByAttributeBuilders != null && !orderByAttributeBuilders.isEmpty()) {
+                throw new QueryableRecordTableException("The CosmosDB Event table does not support 'order by' " +
+                        "along with 'group by' in queries on store '" + collectionId + "'. ");
+            }
+            groupByClause = String.join(", ", groupByExpressions);
+        } else if (!nonAggregatedExpressions.isEmpty() && nonAggregatedExpressions.size() < selectExpressions.size()) {
+            throw new QueryableRecordTableException("The CosmosDB Event table does not support selecting both " +
+                    "aggregated and non-aggregated attributes without 'group by' in queries on store '" +
+                    collectionId + "'. ");
+        }
+        String selectClause = selectExpressions.entrySet().stream()
+                .map(selectExpression -> selectExpression.getValue() + CosmosTableConstants.SQL_AS +
+                        selectExpression.getKey())
+                .collect(Collectors.joining(", "));
+        String orderByClause = null;
+        if (orderByAttributeBuilders != null && !orderByAttributeBuilders.isEmpty()) {
+            List<String> orderByExpressions = new ArrayList<>();
+            for (OrderByAttributeBuilder orderByAttributeBuilder : orderByAttributeBuilders) {
+                String orderByAttribute = this.visitSelection(orderByAttributeBuilder.getExpressionBuilder(), true,
+                        CosmosTableConstants.SQL_SELECTION_PARAMETER_PREFIX, parameters).returnCondition();
+                orderByExpressions.add(this.getOrderByProperty(orderByAttribute, selectExpressions) +
+                        (orderByAttributeBuilder.getOrder() == OrderByAttribute.Order.DESC ?
+                                CosmosTableConstants.SQL_DESC : CosmosTableConstants.SQL_ASC));
+            }
+            orderByClause = String.join(", ", orderByExpressions);
+        }
+        return new CosmosCompiledSelection(collectionId, selectClause, groupByClause, orderByClause, limit, offset,
+                parameters, groupByClause != null || nonAggregatedExpressions.size() < selectExpressions.size());
+    }
+
+    /**
+     * Method for compiling an expression of a Siddhi selector into its Cosmos SQL form. Expressions which cannot be
+     * translated are reported with a {@link QueryableRecordTableException}, so that Siddhi processes the query itself.
+     *
+     * @param expressionBuilder   the builder of the expression.
+     * @param isAfterSelectClause whether attributes should be referred to without the collection alias.
+     * @param parameterPrefix     the prefix of the names of the parameters of the expression.
+     * @param parameters          the map to which the parameters of the expression are added.
+     * @return the visitor which has been used to build the expression.
+     */
+    private CosmosConditionVisitor visitSelection(ExpressionBuilder expressionBuilder, boolean isAfterSelectClause,
+                                                  String parameterPrefix, Map<String, Object> parameters) {
+        CosmosConditionVisitor visitor = new CosmosConditionVisitor(this.collectionId, isAfterSelectClause,
+                parameterPrefix);
+        try {
+            expressionBuilder.build(visitor);
+        } catch (OperationNotSupportedException e) {
+            throw new QueryableRecordTableException(e.getMessage(), e);
+        }
+        visitor.returnCondition();
+        for (Map.Entry<Integer, Object> parameter : visitor.getParameters().entrySet()) {
+            parameters.put(parameterPrefix + parameter.getKey(), parameter.getValue());
+        }
+        return visitor;
+    }
+
+    /**
+     * Method for resolving the document property a query is to be ordered by, as Cosmos DB can only order by
+     * properties and not by computed values.
+     *
+     * @param orderByAttribute  the output or table attribute the query is ordered by.
+     * @param selectExpressions the compiled expressions of the output attributes.
+     * @return the document property to order by.
+     */
+    private String getOrderByProperty(String orderByAttribute, Map<String, String> selectExpressions) {
+        String selectExpression = selectExpressions.get(orderByAttribute);
+        if (selectExpression != null) {
+            for (String attributeName : attributeNames) {
+                if (selectExpression.equals(CosmosTableUtils.toPropertyReference(collectionId, attributeName))) {
+                    return selectExpression;
+                }
+            }
+        } else if (attributeNames.contains(orderByAttribute)) {
+            return CosmosTableUtils.toPropertyReference(collectionId, orderByAttribute);
+        }
+        throw new QueryableRecordTableException("The CosmosDB Event table only supports ordering by table " +
+                "attributes but '" + orderByAttribute + "' was specified in a query on store '" + collectionId +
+                "'. ");
+    }
+
+    @Override
+    protected RecordIterator<Object[]> query(Map<String, Object> parameterMap, CompiledCondition compiledCondition,
+                                             CompiledSelection compiledSelection, Attribute[] outputAttributes) {
+        CosmosCompiledCondition cosmosCompiledCondition = (CosmosCompiledCondition) compiledCondition;
+        CosmosCompiledSelection cosmosCompiledSelection = (CosmosCompiledSelection) compiledSelection;
+        if (cosmosCompiledSelection.isAggregated() && !isSinglePartitionQuery(cosmosCompiledCondition)) {
+            //The service would aggregate each partition on its own, yielding a row per partition.
+            throw new QueryableRecordTableException("The CosmosDB Event table only supports aggregates and " +
+                    "'group by' in queries on store '" + collectionId + "' which compare the partition key " +
+                    "attribute for equality, as the collection is partitioned. ");
+        }
+        this.flushQueuedDocuments();
+        SqlQuerySpec query = CosmosTableUtils.buildQuerySpec(cosmosCompiledCondition, cosmosCompiledSelection,
+                parameterMap);
+        CosmosQuery pages = this.meterPages(cosmosClient.queryDocuments(collectionLink, query,
+                getQueryFeedOptions(cosmosCompiledCondition, parameterMap)));
+        return new CosmosIterator(pages, outputAttributes, cosmosCompiledSelection.getLimit(), prefetchExecutor,
+                queryPrefetchDepth, retryScheduler);
+    }
+
     @Override
     protected CompiledExpression compileSetAttribute(ExpressionBuilder expressionBuilder) {
         return compileCondition(expressionBuilder);
@@ -676,20 +2225,186 @@ public class CosmosDBEventTable extends AbstractRecordTable {
 
     private List<Document> queryDocuments(CosmosCompiledCondition compiledCondition,
                                           Map<String, Object> conditionParameterMap) throws SQLException {
-        String condition = CosmosTableUtils.resolveCondition(compiledCondition, conditionParameterMap);
-        SqlQuerySpec query = new SqlQuerySpec();
-        String queryText = CosmosTableConstants.SQL_SELECT.replaceFirst(
-                CosmosTableConstants.SQL_QUESTION_MARK, collectionId);
-        queryText = queryText.replaceFirst(CosmosTableConstants.SQL_QUESTION_MARK, condition);
-        query.setQueryText(queryText);
-        return documentClient.queryDocuments(collectionLink, query, feedOptions).getQueryIterable().toList();
+        SqlQuerySpec query = CosmosTableUtils.buildQuerySpec(compiledCondition.getQueryText(), compiledCondition,
+                conditionParameterMap);
+        return queryDocuments(query, getQueryFeedOptions(compiledCondition, conditionParameterMap));
+    }
+
+    /**
+     * Method for querying references to the documents matching a compiled condition, i.e. only their self links, ids
+     * and partition key values, for documents which are to be deleted or patched without being read.
+     *
+     * @param compiledCondition     the compiled condition to be resolved.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the references to the matching documents.
+     * @throws SQLException if the query could not be built.
+     */
+    private List<Document> queryDocumentReferences(CosmosCompiledCondition compiledCondition,
+                                                   Map<String, Object> conditionParameterMap) throws SQLException {
+        StringBuilder projection = new StringBuilder(CosmosTableUtils.toPropertyReference(collectionId,
+                CosmosTableConstants.DOCUMENT_SELF_LINK)).append(", ")
+                .append(CosmosTableUtils.toPropertyReference(collectionId, CosmosTableConstants.DOCUMENT_ID));
+        if (partitionKeyAttribute != null && !partitionKeyAttribute.equals(CosmosTableConstants.DOCUMENT_ID)) {
+            projection.append(", ").append(CosmosTableUtils.toPropertyReference(collectionId, partitionKeyAttribute));
+        }
+        String queryText = String.format(CosmosTableConstants.SQL_SELECT_ATTRIBUTES, projection, collectionId,
+                compiledCondition.getCompiledQuery());
+        return queryDocuments(CosmosTableUtils.buildQuerySpec(queryText, compiledCondition, conditionParameterMap),
+                getQueryFeedOptions(compiledCondition, conditionParameterMap));
+    }
+
+    /**
+     * Method for running a query and fetching all of its results.
+     *
+     * @param query            the parameterized query.
+     * @param queryFeedOptions the feed options of the query.
+     * @return the results of the query.
+     */
+    private List<Document> queryDocuments(SqlQuerySpec query, FeedOptions queryFeedOptions) {
+        CosmosQuery pages = cosmosClient.queryDocuments(collectionLink, query, queryFeedOptions);
+        try {
+            //Pages are fetched one request at a time, so that each of them is paced and retried on its own.
+            List<Document> documents = new ArrayList<>();
+            List<Document> page;
+            while ((page = this.executeRequest(CosmosRateLimiter.OPERATION_QUERY, pages::fetchNextPage,
+                    fetched -> pages.getRequestCharge())) != null) {
+                documents.addAll(page);
+            }
+            return documents;
+        } catch (DocumentClientException e) {
+            throw new SiddhiAppRuntimeException("Failed to query documents of store '" + collectionId + "'. ", e);
+        }
+    }
+
+    /**
+     * Method for running a query on a compiled condition without fetching its results. The returned iterable
+     * retrieves the results lazily, one page at a time.
+     *
+     * @param queryText             the query text built on the compiled condition.
+     * @param compiledCondition     the compiled condition to be resolved.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the paged query results.
+     * @throws SQLException if the query could not be built.
+     */
+    private CosmosQuery queryDocumentPages(String queryText, CosmosCompiledCondition compiledCondition,
+                                           Map<String, Object> conditionParameterMap) throws SQLException {
+        SqlQuerySpec query = CosmosTableUtils.buildQuerySpec(queryText, compiledCondition, conditionParameterMap);
+        return this.meterPages(cosmosClient.queryDocuments(collectionLink, query,
+                getQueryFeedOptions(compiledCondition, conditionParameterMap)));
+    }
+
+    /**
+     * Method for pacing the pages of a lazily fetched query. When a request unit budget is configured, each page is
+     * paced by the rate limiter of the table and its reported charge is accounted for as it is fetched, be it by the
+     * calling thread or in the background.
+     *
+     * @param pages the paged query results.
+     * @return the paged query results, metered if a request unit budget is configured.
+     */
+    private CosmosQuery meterPages(CosmosQuery pages) {
+        return rateLimiter == null ? pages : rateLimiter.meter(CosmosRateLimiter.OPERATION_QUERY, pages);
+    }
+
+    /**
+     * Method for executing a request against the collection. When throttled requests are retried by the table, the
+     * request is retried on the calling thread for as long as it is throttled.
+     *
+     * @param operation     the type of operation performed by the request.
+     * @param request       the request to be executed.
+     * @param requestCharge the function which returns the request charge reported in the response.
+     * @param <T>           the type of the response.
+     * @return the response of the request.
+     * @throws DocumentClientException if the request failed.
+     */
+    private <T> T executeRequest(String operation, CosmosRateLimiter.Request<T> request,
+                                 ToDoubleFunction<T> requestCharge) throws DocumentClientException {
+        if (retryScheduler == null) {
+            return this.meterRequest(operation, request, requestCharge);
+        }
+        return retryScheduler.await(() -> this.meterRequest(operation, request, requestCharge));
+    }
+
+    /**
+     * Method for executing a request against the collection without retrying it. When a request unit budget is
+     * configured, the request is paced by the rate limiter of the table and its reported charge is accounted for.
+     *
+     * @param operation     the type of operation performed by the request.
+     * @param request       the request to be executed.
+     * @param requestCharge the function which returns the request charge reported in the response.
+     * @param <T>           the type of the response.
+     * @return the response of the request.
+     * @throws DocumentClientException if the request failed.
+     */
+    private <T> T meterRequest(String operation, CosmosRateLimiter.Request<T> request,
+                               ToDoubleFunction<T> requestCharge) throws DocumentClientException {
+        if (rateLimiter == null) {
+            return request.execute();
+        }
+        return rateLimiter.execute(operation, request, requestCharge);
+    }
+
+    /**
+     * Method for building the feed options of a query on a compiled condition. When the condition requires the
+     * partition key attribute to be equal to a value, the query is scoped to that single partition instead of being
+     * fanned out across all partitions of the collection.
+     *
+     * @param compiledCondition     the compiled condition the query is built on.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the feed options to be used for the query.
+     */
+    private FeedOptions getQueryFeedOptions(CosmosCompiledCondition compiledCondition,
+                                            Map<String, Object> conditionParameterMap) {
+        if (partitionKeyAttribute == null) {
+            return feedOptions;
+        }
+        Object partitionKeyParameter = compiledCondition.getEqualityParameters().get(partitionKeyAttribute);
+        if (partitionKeyParameter == null) {
+            return feedOptions;
+        }
+        FeedOptions partitionFeedOptions = new FeedOptions();
+        feedOptionsInitializer.accept(partitionFeedOptions);
+        partitionFeedOptions.setPartitionKey(new PartitionKey(CosmosTableUtils.resolveParameterValue(
+                partitionKeyParameter, conditionParameterMap)));
+        partitionFeedOptions.setEnableCrossPartitionQuery(false);
+        return partitionFeedOptions;
     }
 
     @Override
     protected void disconnect() {
+        try {
+            if (asyncWriter != null) {
+                asyncWriter.stop();
+            }
+        } finally {
+            asyncWriter = null;
+            this.releaseResources();
+        }
+    }
+
+    /**
+     * Method for stopping the executors of the table and closing its client.
+     */
+    private void releaseResources() {
+        if (writeRouter != null) {
+            writeRouter.stop();
+            writeRouter = null;
+        }
+        if (documentExecutor != null) {
+            documentExecutor.stop();
+            documentExecutor = null;
+        }
+        if (retryScheduler != null) {
+            retryScheduler.stop();
+            retryScheduler = null;
+        }
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            prefetchExecutor = null;
+        }
         documentCollection = null;
-        if (documentClient != null) {
-            documentClient.close();
+        if (cosmosClient != null) {
+            cosmosClient.close();
+            cosmosClient = null;
         }
     }
 
@@ -697,4 +2412,14 @@ public class CosmosDBEventTable extends AbstractRecordTable {
     protected void destroy() {
         this.disconnect();
     }
+
+    /**
+     * A writer of the items of a single partition, which resumes from the number of items already written.
+     *
+     * @param <T> the type of the items written.
+     */
+    @FunctionalInterface
+    private interface PartitionWriter<T> {
+        void write(Object partitionKeyValue, List<T> items, AtomicInteger written);
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.DocumentClientException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class which performs an operation on each of the documents matched by a condition of a CosmosDB Event Table, such
+ * as replacing or deleting them, on a bounded pool of workers. At most as many requests as there are workers are in
+ * flight at a time, and the operation fails as soon as any of the documents fails, without starting the operations
+ * which are still pending.
+ */
+public class CosmosDocumentExecutor {
+
+    private final String collectionId;
+    private final ExecutorService workers;
+
+    CosmosDocumentExecutor(String collectionId, int concurrency) {
+        this.collectionId = collectionId;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "CosmosDB-DocumentWorker-" + collectionId + "-" +
+                    threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method which performs an operation on each of the given documents and blocks until all of them have completed,
+     * or until the first of them has failed.
+     *
+     * @param documents the documents to be operated on.
+     * @param operation the operation to be performed on a single document.
+     * @param <T>       the type of the documents.
+     * @throws DocumentClientException if the operation failed on any of the documents.
+     */
+    <T> void execute(List<T> documents, Operation<T> operation) throws DocumentClientException {
+        CompletionService<Void> completion = new ExecutorCompletionService<>(workers);
+        List<Future<Void>> operations = new ArrayList<>(documents.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        for (T document : documents) {
+            operations.add(completion.submit(() -> {
+                if (!failed.get()) {
+                    operation.apply(document);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                completion.take().get();
+            }
+        } catch (InterruptedException e) {
+            cancel(operations, failed);
+            Thread.currentThread().interrupt();
+            throw new SiddhiAppRuntimeException("Interrupted while operating on documents of store '" + collectionId +
+                    "'. ", e);
+        } catch (ExecutionException e) {
+            cancel(operations, failed);
+            if (e.getCause() instanceof DocumentClientException) {
+                throw (DocumentClientException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SiddhiAppRuntimeException("Failed to operate on documents of store '" + collectionId + "'. ",
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Method which stops the workers once the operations already running have completed.
+     */
+    void stop() {
+        workers.shutdown();
+    }
+
+    private static void cancel(List<Future<Void>> operations, AtomicBoolean failed) {
+        //Requests already in flight are left to complete, as interrupting them would not undo them.
+        failed.set(true);
+        for (Future<Void> operation : operations) {
+            operation.cancel(false);
+        }
+    }
+
+    /**
+     * An operation performed on a single document.
+     *
+     * @param <T> the type of the document.
+     */
+    @FunctionalInterface
+    interface Operation<T> {
+        void apply(T document) throws DocumentClientException;
+    }
+}
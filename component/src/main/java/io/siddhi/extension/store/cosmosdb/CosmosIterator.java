@@ -20,26 +20,79 @@
 package io.siddhi.extension.store.cosmosdb;
 
 import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.core.table.record.RecordIterator;
+import io.siddhi.extension.store.cosmosdb.client.CosmosQuery;
+import io.siddhi.query.api.definition.Attribute;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * A class representing a RecordIterator which is responsible for processing CosmosDB Event Table find() operations in a
- * streaming fashion.
+ * streaming fashion. Query results are fetched one page at a time as the iterator is consumed, hence memory use is
+ * bounded by the page size. When a prefetch depth is given, the following pages are fetched in the background while the
+ * current one is being consumed. No further pages are fetched once the limit of a query has been reached, nor once the
+ * iterator has been closed or is no longer referenced by its consumer.
  */
 public class CosmosIterator implements RecordIterator<Object[]> {
 
+    private static final List<Document> END_OF_PAGES = new ArrayList<>();
+    private static final long PREFETCH_POLL_INTERVAL_MILLIS = 100;
+
     private boolean preFetched;
     private Object[] nextDocument;
     private List<String> attributes;
-    private ListIterator<Document> document;
+    private Attribute.Type[] attributeTypes;
+    private CosmosQuery pages;
+    private Iterator<Document> document;
+    private Prefetcher prefetcher;
+    private Future<?> prefetchTask;
+    private CosmosRetryScheduler retryScheduler;
+    private long remaining;
+
+    CosmosIterator(CosmosQuery pages, List<String> attributes, ExecutorService prefetchExecutor,
+                   int prefetchDepth, CosmosRetryScheduler retryScheduler) {
+        this(pages, attributes, null, Long.MAX_VALUE, prefetchExecutor, prefetchDepth, retryScheduler);
+    }
+
+    CosmosIterator(CosmosQuery pages, Attribute[] outputAttributes, Long limit,
+                   ExecutorService prefetchExecutor, int prefetchDepth, CosmosRetryScheduler retryScheduler) {
+        this(pages, Arrays.stream(outputAttributes).map(Attribute::getName).collect(Collectors.toList()),
+                Arrays.stream(outputAttributes).map(Attribute::getType).toArray(Attribute.Type[]::new),
+                limit == null ? Long.MAX_VALUE : limit, prefetchExecutor, prefetchDepth, retryScheduler);
+    }
+
+    private CosmosIterator(CosmosQuery pages, List<String> attributes, Attribute.Type[] attributeTypes, long limit,
+                           ExecutorService prefetchExecutor, int prefetchDepth,
+                           CosmosRetryScheduler retryScheduler) {
+        this.attributes = attributes;
+        this.attributeTypes = attributeTypes;
+        this.pages = pages;
+        this.retryScheduler = retryScheduler;
+        this.remaining = limit;
+        this.document = Collections.emptyIterator();
+        if (prefetchExecutor != null && prefetchDepth > 0 && limit > 0) {
+            this.prefetcher = new Prefetcher(this, pages, prefetchDepth, limit, retryScheduler);
+            this.prefetchTask = prefetchExecutor.submit(prefetcher);
+        }
+    }
 
     CosmosIterator(List<Document> documents, List<String> attributes) {
         this.attributes = attributes;
-        this.document = documents.listIterator();
+        this.document = documents.iterator();
+        this.remaining = Long.MAX_VALUE;
     }
 
     @Override
@@ -59,10 +112,80 @@ public class CosmosIterator implements RecordIterator<Object[]> {
             this.nextDocument = null;
             return result;
         }
-        if (this.document.hasNext()) {
-            return this.extractRecord(this.document.next());
+        if (this.remaining == 0) {
+            //The limit has been reached, hence no more pages need to be fetched.
+            this.close();
+            return new Object[0];
+        }
+        while (!this.document.hasNext()) {
+            List<Document> page = this.fetchNextPage();
+            if (page == null) {
+                return new Object[0];
+            }
+            this.document = page.iterator();
+        }
+        this.remaining--;
+        return this.extractRecord(this.document.next());
+    }
+
+    /**
+     * Method which retrieves the next page of query results from the service.
+     *
+     * @return the documents of the next page, or null if all pages have been consumed.
+     */
+    private List<Document> fetchNextPage() {
+        if (this.prefetcher != null) {
+            return this.takePrefetchedPage();
+        }
+        if (this.pages == null) {
+            return null;
+        }
+        List<Document> page;
+        try {
+            page = fetchPage(this.pages, this.retryScheduler);
+        } catch (SiddhiAppRuntimeException e) {
+            this.pages = null;
+            throw e;
+        }
+        if (page == null) {
+            this.pages = null;
+        }
+        return page;
+    }
+
+    /**
+     * Method which waits for the next page fetched by the background prefetch task.
+     *
+     * @return the documents of the next page, or null if all pages have been consumed.
+     */
+    private List<Document> takePrefetchedPage() {
+        if (this.prefetchTask == null) {
+            return null;
+        }
+        List<Document> page;
+        try {
+            page = this.prefetcher.prefetchedPages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.close();
+            throw new SiddhiAppRuntimeException("Interrupted while waiting for the next page of documents. ", e);
+        }
+        if (page == END_OF_PAGES) {
+            this.prefetchTask = null;
+            if (this.prefetcher.error != null) {
+                throw this.prefetcher.error;
+            }
+            return null;
+        }
+        return page;
+    }
+
+    private static List<Document> fetchPage(CosmosQuery source, CosmosRetryScheduler retryScheduler) {
+        try {
+            return retryScheduler == null ? source.fetchNextPage() : retryScheduler.await(source::fetchNextPage);
+        } catch (DocumentClientException e) {
+            throw new SiddhiAppRuntimeException("Error retrieving the next page of documents. ", e);
         }
-        return new Object[0];
     }
 
     /**
@@ -74,13 +197,43 @@ public class CosmosIterator implements RecordIterator<Object[]> {
      */
     private Object[] extractRecord(Document document) {
         List<Object> result = new ArrayList<>();
-            for (Object attributeName : attributes) {
-                Object attributeValue = document.get(attributeName.toString());
-                result.add(attributeValue);
+        for (int i = 0; i < attributes.size(); i++) {
+            Object attributeValue = document.get(attributes.get(i));
+            if (attributeTypes != null) {
+                attributeValue = this.convertNumber(attributeValue, attributeTypes[i]);
             }
+            result.add(attributeValue);
+        }
         return result.toArray();
     }
 
+    /**
+     * Method which converts a number parsed from JSON to the type of the output attribute it is assigned to, as the
+     * results of aggregations are not typed by the service.
+     *
+     * @param value the value to be converted.
+     * @param type  the type of the output attribute.
+     * @return the converted value.
+     */
+    private Object convertNumber(Object value, Attribute.Type type) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        Number number = (Number) value;
+        switch (type) {
+            case INT:
+                return number.intValue();
+            case LONG:
+                return number.longValue();
+            case FLOAT:
+                return number.floatValue();
+            case DOUBLE:
+                return number.doubleValue();
+            default:
+                return value;
+        }
+    }
+
     @Override
     public void remove() {
         //Do nothing. This is a read-only iterator.
@@ -88,6 +241,85 @@ public class CosmosIterator implements RecordIterator<Object[]> {
 
     @Override
     public void close() {
+        if (this.prefetcher != null) {
+            this.prefetcher.closed = true;
+        }
+        if (this.prefetchTask != null) {
+            this.prefetchTask.cancel(true);
+            this.prefetchTask = null;
+        }
+        this.pages = null;
+        this.document = Collections.emptyIterator();
     }
-}
 
+    /**
+     * The background task which fetches pages ahead of the consumer of an iterator, until all pages or as many
+     * documents as the limit of the query have been fetched. The task only holds a weak reference to the iterator, and
+     * stops waiting for room in the queue once the iterator has been closed or is no longer referenced, so that an
+     * abandoned iterator does not hold on to a prefetch thread.
+     */
+    private static final class Prefetcher implements Runnable {
+
+        private final WeakReference<CosmosIterator> consumer;
+        private final CosmosQuery source;
+        private final BlockingQueue<List<Document>> prefetchedPages;
+        private final long limit;
+        private final CosmosRetryScheduler retryScheduler;
+        private volatile RuntimeException error;
+        private volatile boolean closed;
+
+        private Prefetcher(CosmosIterator consumer, CosmosQuery source, int prefetchDepth, long limit,
+                           CosmosRetryScheduler retryScheduler) {
+            this.consumer = new WeakReference<>(consumer);
+            this.source = source;
+            this.prefetchedPages = new ArrayBlockingQueue<>(prefetchDepth);
+            this.limit = limit;
+            this.retryScheduler = retryScheduler;
+        }
+
+        @Override
+        public void run() {
+            long fetched = 0;
+            try {
+                List<Document> page = fetchPage(source, retryScheduler);
+                while (page != null) {
+                    if (!this.handOver(page)) {
+                        return;
+                    }
+                    fetched += page.size();
+                    if (fetched >= limit) {
+                        //The consumer stops at the limit, hence no more pages are needed.
+                        break;
+                    }
+                    page = fetchPage(source, retryScheduler);
+                }
+            } catch (RuntimeException e) {
+                this.error = e;
+            } catch (InterruptedException e) {
+                //The iterator has been closed, hence no more pages are needed.
+                return;
+            }
+            try {
+                this.handOver(END_OF_PAGES);
+            } catch (InterruptedException e) {
+                //The iterator has been closed, hence the end of the pages need not be signalled.
+            }
+        }
+
+        /**
+         * Method which places a page in the queue, waiting for room as long as the consumer is still there.
+         *
+         * @param page the page to be handed over to the consumer.
+         * @return false if the consumer is gone, in which case the page has been dropped.
+         * @throws InterruptedException if the task has been cancelled.
+         */
+        private boolean handOver(List<Document> page) throws InterruptedException {
+            while (!prefetchedPages.offer(page, PREFETCH_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (closed || consumer.get() == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.extension.store.cosmosdb.client.CosmosQuery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A token bucket which paces the requests of a CosmosDB Event Table against a budget of request units per second. The
+ * cost of each type of operation is estimated from the request charges reported by the service, and a request waits
+ * until the bucket holds enough request units for its estimated cost. The difference between the estimated and the
+ * reported charge is settled once the request completes.
+ */
+public class CosmosRateLimiter {
+
+    static final String OPERATION_CREATE = "create";
+    static final String OPERATION_READ = "read";
+    static final String OPERATION_REPLACE = "replace";
+    static final String OPERATION_UPSERT = "upsert";
+    static final String OPERATION_DELETE = "delete";
+    static final String OPERATION_QUERY = "query";
+    static final String OPERATION_PROCEDURE = "procedure";
+
+    private static final double INITIAL_ESTIMATED_CHARGE = 1;
+    private static final double ESTIMATE_SMOOTHING_FACTOR = 0.2;
+
+    private final String collectionId;
+    private final double requestUnitsPerSecond;
+    private final Map<String, Double> estimatedCharges;
+    private double availableRequestUnits;
+    private long lastRefillNanos;
+
+    CosmosRateLimiter(String collectionId, double requestUnitsPerSecond) {
+        this.collectionId = collectionId;
+        this.requestUnitsPerSecond = requestUnitsPerSecond;
+        this.estimatedCharges = new ConcurrentHashMap<>();
+        this.availableRequestUnits = requestUnitsPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Method which executes a request once the budget allows for it, and records the request charge reported for it.
+     *
+     * @param operation     the type of operation performed by the request.
+     * @param request       the request to be executed.
+     * @param requestCharge the function which returns the request charge reported in the response.
+     * @param <T>           the type of the response.
+     * @return the response of the request.
+     * @throws DocumentClientException if the request failed.
+     */
+    <T> T execute(String operation, Request<T> request, ToDoubleFunction<T> requestCharge)
+            throws DocumentClientException {
+        double reservedCharge = this.reserve(operation);
+        T response;
+        try {
+            response = request.execute();
+        } catch (DocumentClientException e) {
+            this.settle(operation, reservedCharge, e.getRequestCharge(), false);
+            throw e;
+        }
+        this.settle(operation, reservedCharge, requestCharge.applyAsDouble(response), true);
+        return response;
+    }
+
+    /**
+     * Method which wraps paged query results, so that fetching each page is paced and its request charge recorded,
+     * wherever the pages are fetched from.
+     *
+     * @param operation the type of operation performed by fetching a page.
+     * @param pages     the paged query results.
+     * @return the paged query results, fetching each page through the rate limiter.
+     */
+    CosmosQuery meter(String operation, CosmosQuery pages) {
+        return new CosmosQuery() {
+            @Override
+            public List<Document> fetchNextPage() throws DocumentClientException {
+                return execute(operation, pages::fetchNextPage, page -> pages.getRequestCharge());
+            }
+
+            @Override
+            public double getRequestCharge() {
+                return pages.getRequestCharge();
+            }
+        };
+    }
+
+    /**
+     * Method which reserves the estimated charge of an operation, blocking until the bucket has refilled enough to
+     * cover it.
+     *
+     * @param operation the type of operation to be performed.
+     * @return the reserved request units.
+     */
+    double reserve(String operation) {
+        double estimatedCharge = estimatedCharges.getOrDefault(operation, INITIAL_ESTIMATED_CHARGE);
+        long waitNanos;
+        synchronized (this) {
+            this.refill();
+            availableRequestUnits -= estimatedCharge;
+            waitNanos = availableRequestUnits >= 0 ? 0 :
+                    (long) (-availableRequestUnits / requestUnitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SiddhiAppRuntimeException("Interrupted while waiting for request units of store '" +
+                        collectionId + "'. ", e);
+            }
+        }
+        return estimatedCharge;
+    }
+
+    /**
+     * Method which settles the difference between the reserved and the reported charge of a request, and updates the
+     * estimated charge of its type of operation.
+     *
+     * @param operation      the type of operation performed by the request.
+     * @param reservedCharge the request units reserved for the request.
+     * @param actualCharge   the request charge reported by the service.
+     * @param succeeded      whether the request succeeded, as only successful requests are representative.
+     */
+    private void settle(String operation, double reservedCharge, double actualCharge, boolean succeeded) {
+        synchronized (this) {
+            availableRequestUnits += reservedCharge - actualCharge;
+        }
+        if (succeeded && actualCharge > 0) {
+            estimatedCharges.merge(operation, actualCharge, (estimate, charge) ->
+                    estimate + ESTIMATE_SMOOTHING_FACTOR * (charge - estimate));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        availableRequestUnits = Math.min(requestUnitsPerSecond, availableRequestUnits +
+                (now - lastRefillNanos) * requestUnitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+
+    /**
+     * A request to the Cosmos DB service.
+     *
+     * @param <T> the type of the response.
+     */
+    @FunctionalInterface
+    interface Request<T> {
+        T execute() throws DocumentClientException;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.DocumentClientException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.extension.store.cosmosdb.util.CosmosTableConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class which retries the requests of a CosmosDB Event Table throttled by the service, in place of the blocking
+ * retries of the client. Writes are run on a pool of workers, and a throttled write is parked on a timer until the
+ * retry-after interval reported by the service has elapsed, leaving its worker free to write other partitions in the
+ * meantime. The caller still blocks until all of its writes have completed, and requests whose result is needed by
+ * the caller are retried on the calling thread instead. As with the retries of the client, a request is given up
+ * once it has been throttled more than the allowed number of times, or once the retry-after intervals it has waited
+ * for would exceed the allowed wait time.
+ */
+public class CosmosRetryScheduler {
+
+    private final String collectionId;
+    private final int maxAttempts;
+    private final long maxWaitMillis;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+
+    CosmosRetryScheduler(String collectionId, int maxAttempts, int maxWaitSeconds, int workerCount) {
+        this.collectionId = collectionId;
+        this.maxAttempts = maxAttempts;
+        this.maxWaitMillis = TimeUnit.SECONDS.toMillis(maxWaitSeconds);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CosmosDB-RetryTimer-" + collectionId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "CosmosDB-RetryWorker-" + collectionId + "-" +
+                    threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method which runs the given writes on the workers and blocks until all of them have completed. Each write must
+     * keep track of its own progress, as a throttled write is run again from the start once it is due for a retry.
+     *
+     * @param writes the writes to be run.
+     */
+    void run(List<Runnable> writes) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(writes.size());
+        for (Runnable write : writes) {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            workers.execute(() -> this.attempt(write, result, 1, 0));
+            results.add(result);
+        }
+        SiddhiAppRuntimeException failure = null;
+        for (CompletableFuture<Void> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SiddhiAppRuntimeException("Interrupted while writing documents to store '" + collectionId +
+                        "'. ", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof SiddhiAppRuntimeException ?
+                            (SiddhiAppRuntimeException) e.getCause() :
+                            new SiddhiAppRuntimeException("Failed to write documents to store '" + collectionId +
+                                    "'. ", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Method which executes a request on the calling thread, retrying it after the interval reported by the service
+     * for as long as it is throttled.
+     *
+     * @param request the request to be executed.
+     * @param <T>     the type of the response.
+     * @return the response of the request.
+     * @throws DocumentClientException if the request failed, or was throttled for longer than allowed.
+     */
+    <T> T await(CosmosRateLimiter.Request<T> request) throws DocumentClientException {
+        long waitedMillis = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return request.execute();
+            } catch (DocumentClientException e) {
+                if (!isThrottled(e) || !this.isRetryAllowed(attempt, waitedMillis, e)) {
+                    throw e;
+                }
+                waitedMillis += e.getRetryAfterInMilliseconds();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(e.getRetryAfterInMilliseconds());
+                } catch (InterruptedException interruption) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method which stops the scheduler once the writes already running have completed. Writes parked on the timer fail
+     * once they are due, as they are no longer accepted by the workers.
+     */
+    void stop() {
+        workers.shutdown();
+        timer.shutdown();
+    }
+
+    private void attempt(Runnable write, CompletableFuture<Void> result, int attempt, long waitedMillis) {
+        try {
+            write.run();
+            result.complete(null);
+        } catch (RuntimeException e) {
+            DocumentClientException throttling = getThrottling(e);
+            if (throttling == null || !this.isRetryAllowed(attempt, waitedMillis, throttling)) {
+                result.completeExceptionally(e);
+                return;
+            }
+            long retryAfterMillis = throttling.getRetryAfterInMilliseconds();
+            try {
+                timer.schedule(() -> this.retry(write, result, attempt + 1, waitedMillis + retryAfterMillis, e),
+                        retryAfterMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejection) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void retry(Runnable write, CompletableFuture<Void> result, int attempt, long waitedMillis,
+                       RuntimeException throttling) {
+        try {
+            workers.execute(() -> this.attempt(write, result, attempt, waitedMillis));
+        } catch (RejectedExecutionException e) {
+            //The scheduler has been stopped, hence the write will not be retried.
+            result.completeExceptionally(throttling);
+        }
+    }
+
+    /**
+     * Method which checks whether a throttled request may be retried, given the number of times it has been
+     * attempted and the time it has already waited for.
+     *
+     * @param attempt      the number of times the request has been attempted.
+     * @param waitedMillis the time in milliseconds the request has waited for before its previous attempts.
+     * @param throttling   the throttling error of the last attempt.
+     * @return whether the request may be retried.
+     */
+    private boolean isRetryAllowed(int attempt, long waitedMillis, DocumentClientException throttling) {
+        return attempt <= maxAttempts && waitedMillis + throttling.getRetryAfterInMilliseconds() <= maxWaitMillis;
+    }
+
+    private static DocumentClientException getThrottling(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DocumentClientException && isThrottled((DocumentClientException) cause)) {
+                return (DocumentClientException) cause;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isThrottled(DocumentClientException e) {
+        return e.getStatusCode() == CosmosTableConstants.STATUS_CODE_TOO_MANY_REQUESTS;
+    }
+}
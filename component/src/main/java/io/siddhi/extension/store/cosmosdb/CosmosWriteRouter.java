@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * A class which writes the documents of different partitions of a CosmosDB Event Table in parallel. Each partition key
+ * value is always routed to the same single threaded lane, hence documents of a partition are written in the order they
+ * were added while documents of other partitions need not wait for them.
+ */
+public class CosmosWriteRouter {
+
+    private final String collectionId;
+    private final ExecutorService[] lanes;
+
+    CosmosWriteRouter(String collectionId, int laneCount) {
+        this.collectionId = collectionId;
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "CosmosDB-WriteLane-" + collectionId + "-" + (i + 1);
+            this.lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Method which writes the documents (or batched operations) of each partition on the lane of its partition key
+     * value, and blocks until all of them have been written.
+     *
+     * @param partitions      the items to be written for each partition key value.
+     * @param partitionWriter the writer of the items of a single partition.
+     * @param <T>             the type of the items written.
+     */
+    <T> void route(Map<Object, List<T>> partitions, BiConsumer<Object, List<T>> partitionWriter) {
+        List<Future<?>> writes = new ArrayList<>(partitions.size());
+        for (Map.Entry<Object, List<T>> partition : partitions.entrySet()) {
+            writes.add(getLane(partition.getKey()).submit(() ->
+                    partitionWriter.accept(partition.getKey(), partition.getValue())));
+        }
+        SiddhiAppRuntimeException failure = null;
+        for (Future<?> write : writes) {
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SiddhiAppRuntimeException("Interrupted while writing documents to store '" + collectionId +
+                        "'. ", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof SiddhiAppRuntimeException ?
+                            (SiddhiAppRuntimeException) e.getCause() :
+                            new SiddhiAppRuntimeException("Failed to write documents to store '" + collectionId +
+                                    "'. ", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Method which stops the lanes once the documents already routed to them have been written.
+     */
+    void stop() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private ExecutorService getLane(Object partitionKeyValue) {
+        int hash = partitionKeyValue == null ? 0 : partitionKeyValue.hashCode();
+        return lanes[Math.floorMod(hash, lanes.length)];
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+import com.microsoft.azure.documentdb.Database;
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.DocumentCollection;
+import com.microsoft.azure.documentdb.FeedOptions;
+import com.microsoft.azure.documentdb.RequestOptions;
+import com.microsoft.azure.documentdb.SqlQuerySpec;
+import com.microsoft.azure.documentdb.StoredProcedure;
+
+import java.util.List;
+
+/**
+ * The operations a CosmosDB Event Table performs against a Cosmos DB account. Resources are addressed by their links
+ * and failures are reported as {@link DocumentClientException}s carrying the status code of the service, whichever
+ * implementation serves the requests.
+ */
+public interface CosmosClient extends AutoCloseable {
+
+    /**
+     * Method for querying the databases of the account.
+     *
+     * @param query       the SQL query to be run on the databases.
+     * @param feedOptions the feed options of the query.
+     * @return the matching databases.
+     * @throws DocumentClientException if the query failed.
+     */
+    List<Database> queryDatabases(String query, FeedOptions feedOptions) throws DocumentClientException;
+
+    /**
+     * Method for querying the collections of a database.
+     *
+     * @param databaseLink the link of the database.
+     * @param query        the SQL query to be run on the collections.
+     * @param feedOptions  the feed options of the query.
+     * @return the matching collections.
+     * @throws DocumentClientException if the query failed.
+     */
+    List<DocumentCollection> queryCollections(String databaseLink, String query, FeedOptions feedOptions)
+            throws DocumentClientException;
+
+    /**
+     * Method for creating a collection in a database.
+     *
+     * @param databaseLink the link of the database.
+     * @param collection   the definition of the collection.
+     * @param options      the request options.
+     * @return the created collection.
+     * @throws DocumentClientException if the collection could not be created.
+     */
+    CosmosResponse<DocumentCollection> createCollection(String databaseLink, DocumentCollection collection,
+                                                        RequestOptions options) throws DocumentClientException;
+
+    /**
+     * Method for creating or replacing a stored procedure of a collection.
+     *
+     * @param collectionLink  the link of the collection.
+     * @param storedProcedure the stored procedure.
+     * @param options         the request options.
+     * @return the registered stored procedure.
+     * @throws DocumentClientException if the stored procedure could not be registered.
+     */
+    CosmosResponse<StoredProcedure> upsertStoredProcedure(String collectionLink, StoredProcedure storedProcedure,
+                                                          RequestOptions options) throws DocumentClientException;
+
+    /**
+     * Method for executing a stored procedure.
+     *
+     * @param storedProcedureLink the link of the stored procedure.
+     * @param options             the request options, scoped to the partition the stored procedure operates on.
+     * @param procedureParams     the arguments of the stored procedure.
+     * @return the body of the response of the stored procedure.
+     * @throws DocumentClientException if the stored procedure failed.
+     */
+    CosmosResponse<String> executeStoredProcedure(String storedProcedureLink, RequestOptions options,
+                                                  Object[] procedureParams) throws DocumentClientException;
+
+    /**
+     * Method for creating a document.
+     *
+     * @param collectionLink               the link of the collection.
+     * @param document                     the document.
+     * @param options                      the request options.
+     * @param disableAutomaticIdGeneration whether a document without an id should be rejected.
+     * @return the created document.
+     * @throws DocumentClientException if the document could not be created.
+     */
+    CosmosResponse<Document> createDocument(String collectionLink, Document document, RequestOptions options,
+                                            boolean disableAutomaticIdGeneration) throws DocumentClientException;
+
+    /**
+     * Method for creating a document, or replacing the document of the same id.
+     *
+     * @param collectionLink               the link of the collection.
+     * @param document                     the document.
+     * @param options                      the request options.
+     * @param disableAutomaticIdGeneration whether a document without an id should be rejected.
+     * @return the created or replaced document.
+     * @throws DocumentClientException if the document could not be written.
+     */
+    CosmosResponse<Document> upsertDocument(String collectionLink, Document document, RequestOptions options,
+                                            boolean disableAutomaticIdGeneration) throws DocumentClientException;
+
+    /**
+     * Method for replacing an existing document.
+     *
+     * @param document the new content of the document, carrying its self link.
+     * @param options  the request options.
+     * @return the replaced document.
+     * @throws DocumentClientException if the document could not be replaced.
+     */
+    CosmosResponse<Document> replaceDocument(Document document, RequestOptions options)
+            throws DocumentClientException;
+
+    /**
+     * Method for reading a document.
+     *
+     * @param documentLink the link of the document.
+     * @param options      the request options.
+     * @return the document.
+     * @throws DocumentClientException if the document could not be read.
+     */
+    CosmosResponse<Document> readDocument(String documentLink, RequestOptions options) throws DocumentClientException;
+
+    /**
+     * Method for deleting a document.
+     *
+     * @param documentLink the link of the document.
+     * @param options      the request options.
+     * @return the response of the deletion, without a resource.
+     * @throws DocumentClientException if the document could not be deleted.
+     */
+    CosmosResponse<Document> deleteDocument(String documentLink, RequestOptions options)
+            throws DocumentClientException;
+
+    /**
+     * Method for querying the documents of a collection. No request is sent until the first page is fetched.
+     *
+     * @param collectionLink the link of the collection.
+     * @param query          the parameterized SQL query.
+     * @param feedOptions    the feed options of the query.
+     * @return the paged results of the query.
+     */
+    CosmosQuery queryDocuments(String collectionLink, SqlQuerySpec query, FeedOptions feedOptions);
+
+    /**
+     * Method for releasing the resources held by the client.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+import com.microsoft.azure.documentdb.ConnectionPolicy;
+import com.microsoft.azure.documentdb.ConsistencyLevel;
+import com.microsoft.azure.documentdb.Database;
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClient;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.DocumentCollection;
+import com.microsoft.azure.documentdb.FeedOptions;
+import com.microsoft.azure.documentdb.RequestOptions;
+import com.microsoft.azure.documentdb.SqlQuerySpec;
+import com.microsoft.azure.documentdb.StoredProcedure;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry of the {@link DocumentClient}s of the CosmosDB Event Tables of the JVM. Tables which connect to the same
+ * account with the same credentials, consistency level and connection policy share a single client, and hence its
+ * connection pool, address caches and session tokens. Each client is reference counted and only closed once the last
+ * table using it has released it.
+ */
+public final class CosmosClientRegistry {
+
+    private static final Log log = LogFactory.getLog(CosmosClientRegistry.class);
+    private static final Map<List<Object>, SharedClient> CLIENTS = new HashMap<>();
+
+    private CosmosClientRegistry() {
+    }
+
+    /**
+     * Method for acquiring a client of a Cosmos DB account, creating it if no table holds one for the same settings.
+     * The returned client must be released by closing it once it is no longer needed.
+     *
+     * @param uri              the endpoint of the account.
+     * @param accessKey        the master key of the account.
+     * @param connectionPolicy the connection policy of the client.
+     * @param consistencyLevel the consistency level of the client.
+     * @return the shared client.
+     */
+    public static synchronized CosmosClient acquire(String uri, String accessKey, ConnectionPolicy connectionPolicy,
+                                                    ConsistencyLevel consistencyLevel) {
+        List<Object> key = getKey(uri, accessKey, connectionPolicy, consistencyLevel);
+        SharedClient client = CLIENTS.get(key);
+        if (client == null) {
+            client = new SharedClient(key, new DocumentDBClient(new DocumentClient(uri, accessKey,
+                    connectionPolicy, consistencyLevel)));
+            CLIENTS.put(key, client);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Reusing the client of '" + uri + "', which is now shared by " + (client.references + 1) +
+                    " tables. ");
+        }
+        client.references++;
+        return client;
+    }
+
+    private static synchronized void release(SharedClient client) {
+        if (client.references > 0 && --client.references == 0) {
+            CLIENTS.remove(client.key);
+            client.delegate.close();
+        }
+    }
+
+    /**
+     * The connection policy carries no value equality of its own, hence the settings it is configured with are
+     * compared instead.
+     */
+    private static List<Object> getKey(String uri, String accessKey, ConnectionPolicy connectionPolicy,
+                                       ConsistencyLevel consistencyLevel) {
+        return Arrays.asList(uri, accessKey, consistencyLevel,
+                connectionPolicy.getRequestTimeout(),
+                connectionPolicy.getDirectRequestTimeout(),
+                connectionPolicy.getMediaRequestTimeout(),
+                connectionPolicy.getConnectionMode(),
+                connectionPolicy.getMediaReadMode(),
+                connectionPolicy.getMaxPoolSize(),
+                connectionPolicy.getIdleConnectionTimeout(),
+                connectionPolicy.getUserAgentSuffix(),
+                connectionPolicy.getEnableEndpointDiscovery(),
+                String.valueOf(connectionPolicy.getPreferredLocations()),
+                connectionPolicy.isUsingMultipleWriteLocations(),
+                connectionPolicy.getHandleServiceUnavailableFromProxy(),
+                connectionPolicy.getRetryOptions().getMaxRetryWaitTimeInSeconds(),
+                connectionPolicy.getRetryOptions().getMaxRetryAttemptsOnThrottledRequests());
+    }
+
+    /**
+     * A client shared by the tables which acquired it, which closes the underlying client once all of them have
+     * closed it.
+     */
+    private static final class SharedClient implements CosmosClient {
+
+        private final List<Object> key;
+        private final CosmosClient delegate;
+        private int references;
+
+        private SharedClient(List<Object> key, CosmosClient delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<Database> queryDatabases(String query, FeedOptions feedOptions) throws DocumentClientException {
+            return delegate.queryDatabases(query, feedOptions);
+        }
+
+        @Override
+        public List<DocumentCollection> queryCollections(String databaseLink, String query, FeedOptions feedOptions)
+                throws DocumentClientException {
+            return delegate.queryCollections(databaseLink, query, feedOptions);
+        }
+
+        @Override
+        public CosmosResponse<DocumentCollection> createCollection(String databaseLink, DocumentCollection collection,
+                                                                   RequestOptions options)
+                throws DocumentClientException {
+            return delegate.createCollection(databaseLink, collection, options);
+        }
+
+        @Override
+        public CosmosResponse<StoredProcedure> upsertStoredProcedure(String collectionLink,
+                                                                     StoredProcedure storedProcedure,
+                                                                     RequestOptions options)
+                throws DocumentClientException {
+            return delegate.upsertStoredProcedure(collectionLink, storedProcedure, options);
+        }
+
+        @Override
+        public CosmosResponse<String> executeStoredProcedure(String storedProcedureLink, RequestOptions options,
+                                                             Object[] procedureParams)
+                throws DocumentClientException {
+            return delegate.executeStoredProcedure(storedProcedureLink, options, procedureParams);
+        }
+
+        @Override
+        public CosmosResponse<Document> createDocument(String collectionLink, Document document,
+                                                       RequestOptions options, boolean disableAutomaticIdGeneration)
+                throws DocumentClientException {
+            return delegate.createDocument(collectionLink, document, options, disableAutomaticIdGeneration);
+        }
+
+        @Override
+        public CosmosResponse<Document> upsertDocument(String collectionLink, Document document,
+                                                       RequestOptions options, boolean disableAutomaticIdGeneration)
+                throws DocumentClientException {
+            return delegate.upsertDocument(collectionLink, document, options, disableAutomaticIdGeneration);
+        }
+
+        @Override
+        public CosmosResponse<Document> replaceDocument(Document document, RequestOptions options)
+                throws DocumentClientException {
+            return delegate.replaceDocument(document, options);
+        }
+
+        @Override
+        public CosmosResponse<Document> readDocument(String documentLink, RequestOptions options)
+                throws DocumentClientException {
+            return delegate.readDocument(documentLink, options);
+        }
+
+        @Override
+        public CosmosResponse<Document> deleteDocument(String documentLink, RequestOptions options)
+                throws DocumentClientException {
+            return delegate.deleteDocument(documentLink, options);
+        }
+
+        @Override
+        public CosmosQuery queryDocuments(String collectionLink, SqlQuerySpec query, FeedOptions feedOptions) {
+            return delegate.queryDocuments(collectionLink, query, feedOptions);
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+
+import java.util.List;
+
+/**
+ * The results of a query on a Cosmos DB collection, fetched one page at a time.
+ */
+public interface CosmosQuery {
+
+    /**
+     * Method which fetches the next page of results. A page which fails to be fetched may be fetched again.
+     *
+     * @return the documents of the next page, or null if all pages have been fetched.
+     * @throws DocumentClientException if the page could not be fetched.
+     */
+    List<Document> fetchNextPage() throws DocumentClientException;
+
+    /**
+     * Returns the number of request units the last page fetched has been charged.
+     *
+     * @return the request charge of the last page.
+     */
+    double getRequestCharge();
+}
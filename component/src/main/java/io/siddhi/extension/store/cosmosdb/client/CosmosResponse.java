@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+/**
+ * The response of a single request to a Cosmos DB account.
+ *
+ * @param <T> the type of the resource returned by the request.
+ */
+public class CosmosResponse<T> {
+
+    private final T resource;
+    private final double requestCharge;
+
+    public CosmosResponse(T resource, double requestCharge) {
+        this.resource = resource;
+        this.requestCharge = requestCharge;
+    }
+
+    /**
+     * Returns the resource returned by the request.
+     *
+     * @return the resource, or null if the request returns none.
+     */
+    public T getResource() {
+        return resource;
+    }
+
+    /**
+     * Returns the number of request units the request has been charged.
+     *
+     * @return the request charge.
+     */
+    public double getRequestCharge() {
+        return requestCharge;
+    }
+}
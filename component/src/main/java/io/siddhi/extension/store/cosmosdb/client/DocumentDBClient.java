@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+import com.microsoft.azure.documentdb.Database;
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClient;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.DocumentCollection;
+import com.microsoft.azure.documentdb.FeedOptions;
+import com.microsoft.azure.documentdb.FeedResponse;
+import com.microsoft.azure.documentdb.QueryIterable;
+import com.microsoft.azure.documentdb.RequestOptions;
+import com.microsoft.azure.documentdb.Resource;
+import com.microsoft.azure.documentdb.ResourceResponse;
+import com.microsoft.azure.documentdb.SqlQuerySpec;
+import com.microsoft.azure.documentdb.StoredProcedure;
+import com.microsoft.azure.documentdb.StoredProcedureResponse;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link CosmosClient} which sends requests to a Cosmos DB account through a {@link DocumentClient}.
+ */
+public class DocumentDBClient implements CosmosClient {
+
+    private final DocumentClient documentClient;
+
+    public DocumentDBClient(DocumentClient documentClient) {
+        this.documentClient = documentClient;
+    }
+
+    @Override
+    public List<Database> queryDatabases(String query, FeedOptions feedOptions) {
+        return documentClient.queryDatabases(query, feedOptions).getQueryIterable().toList();
+    }
+
+    @Override
+    public List<DocumentCollection> queryCollections(String databaseLink, String query, FeedOptions feedOptions) {
+        return documentClient.queryCollections(databaseLink, query, feedOptions).getQueryIterable().toList();
+    }
+
+    @Override
+    public CosmosResponse<DocumentCollection> createCollection(String databaseLink, DocumentCollection collection,
+                                                               RequestOptions options)
+            throws DocumentClientException {
+        return toResponse(documentClient.createCollection(databaseLink, collection, options));
+    }
+
+    @Override
+    public CosmosResponse<StoredProcedure> upsertStoredProcedure(String collectionLink,
+                                                                 StoredProcedure storedProcedure,
+                                                                 RequestOptions options)
+            throws DocumentClientException {
+        return toResponse(documentClient.upsertStoredProcedure(collectionLink, storedProcedure, options));
+    }
+
+    @Override
+    public CosmosResponse<String> executeStoredProcedure(String storedProcedureLink, RequestOptions options,
+                                                         Object[] procedureParams) throws DocumentClientException {
+        StoredProcedureResponse response = documentClient.executeStoredProcedure(storedProcedureLink, options,
+                procedureParams);
+        return new CosmosResponse<>(response.getResponseAsString(), response.getRequestCharge());
+    }
+
+    @Override
+    public CosmosResponse<Document> createDocument(String collectionLink, Document document, RequestOptions options,
+                                                   boolean disableAutomaticIdGeneration)
+            throws DocumentClientException {
+        return toResponse(documentClient.createDocument(collectionLink, document, options,
+                disableAutomaticIdGeneration));
+    }
+
+    @Override
+    public CosmosResponse<Document> upsertDocument(String collectionLink, Document document, RequestOptions options,
+                                                   boolean disableAutomaticIdGeneration)
+            throws DocumentClientException {
+        return toResponse(documentClient.upsertDocument(collectionLink, document, options,
+                disableAutomaticIdGeneration));
+    }
+
+    @Override
+    public CosmosResponse<Document> replaceDocument(Document document, RequestOptions options)
+            throws DocumentClientException {
+        return toResponse(documentClient.replaceDocument(document, options));
+    }
+
+    @Override
+    public CosmosResponse<Document> readDocument(String documentLink, RequestOptions options)
+            throws DocumentClientException {
+        return toResponse(documentClient.readDocument(documentLink, options));
+    }
+
+    @Override
+    public CosmosResponse<Document> deleteDocument(String documentLink, RequestOptions options)
+            throws DocumentClientException {
+        return toResponse(documentClient.deleteDocument(documentLink, options));
+    }
+
+    @Override
+    public CosmosQuery queryDocuments(String collectionLink, SqlQuerySpec query, FeedOptions feedOptions) {
+        FeedResponse<Document> response = documentClient.queryDocuments(collectionLink, query, feedOptions);
+        QueryIterable<Document> pages = response.getQueryIterable();
+        return new CosmosQuery() {
+            @Override
+            public List<Document> fetchNextPage() throws DocumentClientException {
+                return pages.fetchNextBlock();
+            }
+
+            @Override
+            public double getRequestCharge() {
+                return response.getRequestCharge();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        documentClient.close();
+    }
+
+    private static <T extends Resource> CosmosResponse<T> toResponse(ResourceResponse<T> response) {
+        return new CosmosResponse<>(response.getResource(), response.getRequestCharge());
+    }
+}
@@ -0,0 +1,603 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+import com.microsoft.azure.documentdb.Database;
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.DocumentCollection;
+import com.microsoft.azure.documentdb.Error;
+import com.microsoft.azure.documentdb.FeedOptions;
+import com.microsoft.azure.documentdb.RequestOptions;
+import com.microsoft.azure.documentdb.Resource;
+import com.microsoft.azure.documentdb.SqlParameter;
+import com.microsoft.azure.documentdb.SqlParameterCollection;
+import com.microsoft.azure.documentdb.SqlQuerySpec;
+import com.microsoft.azure.documentdb.StoredProcedure;
+import io.siddhi.extension.store.cosmosdb.util.CosmosTableConstants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link CosmosClient} which keeps databases, collections and documents in memory, for measuring the
+ * overhead of the CosmosDB Event Table and running it without a Cosmos DB account. Clients created for the same
+ * endpoint share their account, hence tables and Siddhi apps of a JVM see each other's documents as they would on the
+ * service, until the endpoint is discarded through {@link #reset(String)}. Databases are not created by the table,
+ * and have to be created through {@link #createDatabase(String)} before the table connects, as the table keeps on
+ * retrying to connect to a database which does not exist.
+ * <p>
+ * Queries are evaluated by {@link InMemorySqlQuery}, and the stored procedures of the table are replaced by Java
+ * equivalents. Documents are identified by their id alone, regardless of their partition key, and every request is
+ * charged a single request unit.
+ */
+public class InMemoryCosmosClient implements CosmosClient {
+
+    static final int STATUS_CODE_BAD_REQUEST = 400;
+    static final int STATUS_CODE_NOT_FOUND = 404;
+    static final int STATUS_CODE_CONFLICT = 409;
+    private static final double REQUEST_CHARGE = 1;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_EXECUTED_QUERIES = 100;
+    private static final int MAX_PROCEDURE_DOCUMENTS = 100;
+    private static final String SELF_LINK = "_self";
+    private static final String LINK_DATABASES = "dbs/";
+    private static final String LINK_COLLECTIONS = "/colls/";
+    private static final String LINK_DOCUMENTS = "/docs/";
+    private static final String LINK_STORED_PROCEDURES = "/sprocs/";
+    private static final Map<String, Account> ACCOUNTS = new ConcurrentHashMap<>();
+    private static final Map<String, StoredProcedureEmulation> STORED_PROCEDURES = new HashMap<>();
+
+    static {
+        STORED_PROCEDURES.put(CosmosTableConstants.BULK_INSERT_PROCEDURE_ID, InMemoryCosmosClient::bulkInsert);
+        STORED_PROCEDURES.put(CosmosTableConstants.TRANSACTIONAL_BATCH_PROCEDURE_ID,
+                InMemoryCosmosClient::transactionalBatch);
+        STORED_PROCEDURES.put(CosmosTableConstants.PATCH_PROCEDURE_ID, InMemoryCosmosClient::patch);
+        STORED_PROCEDURES.put(CosmosTableConstants.UPDATE_BY_CONDITION_PROCEDURE_ID,
+                InMemoryCosmosClient::updateByCondition);
+        STORED_PROCEDURES.put(CosmosTableConstants.DELETE_BY_CONDITION_PROCEDURE_ID,
+                InMemoryCosmosClient::deleteByCondition);
+    }
+
+    private final Account account;
+    private final Map<String, InMemorySqlQuery> parsedQueries;
+
+    public InMemoryCosmosClient(String endpoint) {
+        this.account = ACCOUNTS.computeIfAbsent(endpoint, key -> new Account());
+        this.parsedQueries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method for creating a database in the account of the client, if it does not exist yet.
+     *
+     * @param databaseId the id of the database.
+     */
+    public void createDatabase(String databaseId) {
+        account.databases.computeIfAbsent(databaseId, id -> {
+            Database database = new Database();
+            database.setId(id);
+            database.set(SELF_LINK, LINK_DATABASES + id);
+            return database;
+        });
+    }
+
+    /**
+     * Method for discarding the databases, collections, documents and executed queries of an endpoint, e.g. to
+     * isolate tests sharing an endpoint. Clients created after the reset start from an empty account, while clients
+     * created before it keep on using the discarded one.
+     *
+     * @param endpoint the endpoint to be discarded.
+     */
+    public static void reset(String endpoint) {
+        ACCOUNTS.remove(endpoint);
+    }
+
+    /**
+     * Method for inspecting the document queries most recently executed on an endpoint, e.g. to check the query text
+     * a table issues for an operation.
+     *
+     * @param endpoint the endpoint the queries have been executed on.
+     * @return the texts of up to the last {@value #MAX_EXECUTED_QUERIES} document queries, oldest first.
+     */
+    public static List<String> getExecutedQueries(String endpoint) {
+        Account account = ACCOUNTS.get(endpoint);
+        if (account == null) {
+            return Collections.emptyList();
+        }
+        synchronized (account.executedQueries) {
+            return new ArrayList<>(account.executedQueries);
+        }
+    }
+
+    @Override
+    public List<Database> queryDatabases(String query, FeedOptions feedOptions) throws DocumentClientException {
+        return queryResources(new ArrayList<>(account.databases.values()), query, Database::new);
+    }
+
+    @Override
+    public List<DocumentCollection> queryCollections(String databaseLink, String query, FeedOptions feedOptions)
+            throws DocumentClientException {
+        String prefix = normalizeLink(databaseLink) + LINK_COLLECTIONS;
+        List<DocumentCollection> collections = new ArrayList<>();
+        for (Map.Entry<String, StoredCollection> collection : account.collections.entrySet()) {
+            if (collection.getKey().startsWith(prefix)) {
+                collections.add(collection.getValue().definition);
+            }
+        }
+        return queryResources(collections, query, DocumentCollection::new);
+    }
+
+    @Override
+    public CosmosResponse<DocumentCollection> createCollection(String databaseLink, DocumentCollection collection,
+                                                               RequestOptions options)
+            throws DocumentClientException {
+        String link = normalizeLink(databaseLink);
+        if (!account.databases.containsKey(link.substring(LINK_DATABASES.length()))) {
+            throw newException(STATUS_CODE_NOT_FOUND, "Database '" + link + "' does not exist. ");
+        }
+        DocumentCollection definition = new DocumentCollection(collection.toJson());
+        String collectionLink = link + LINK_COLLECTIONS + definition.getId();
+        definition.set(SELF_LINK, collectionLink);
+        if (account.collections.putIfAbsent(collectionLink, new StoredCollection(definition)) != null) {
+            throw newException(STATUS_CODE_CONFLICT, "Collection '" + collectionLink + "' already exists. ");
+        }
+        return new CosmosResponse<>(new DocumentCollection(definition.toJson()), REQUEST_CHARGE);
+    }
+
+    @Override
+    public CosmosResponse<StoredProcedure> upsertStoredProcedure(String collectionLink,
+                                                                 StoredProcedure storedProcedure,
+                                                                 RequestOptions options)
+            throws DocumentClientException {
+        StoredCollection collection = getCollection(collectionLink);
+        StoredProcedure registered = new StoredProcedure(storedProcedure.toJson());
+        String link = normalizeLink(collectionLink) + LINK_STORED_PROCEDURES + registered.getId();
+        registered.set(SELF_LINK, link);
+        collection.storedProcedures.put(link, registered);
+        return new CosmosResponse<>(new StoredProcedure(registered.toJson()), REQUEST_CHARGE);
+    }
+
+    @Override
+    public CosmosResponse<String> executeStoredProcedure(String storedProcedureLink, RequestOptions options,
+                                                         Object[] procedureParams) throws DocumentClientException {
+        String link = normalizeLink(storedProcedureLink);
+        String collectionLink = link.substring(0, link.lastIndexOf(LINK_STORED_PROCEDURES));
+        StoredCollection collection = getCollection(collectionLink);
+        StoredProcedure storedProcedure = collection.storedProcedures.get(link);
+        if (storedProcedure == null) {
+            throw newException(STATUS_CODE_NOT_FOUND, "Stored procedure '" + link + "' does not exist. ");
+        }
+        StoredProcedureEmulation emulation = STORED_PROCEDURES.get(storedProcedure.getId());
+        if (emulation == null) {
+            throw newException(STATUS_CODE_BAD_REQUEST, "Stored procedure '" + storedProcedure.getId() +
+                    "' cannot be run in memory. ");
+        }
+        synchronized (collection) {
+            //A stored procedure runs as a transaction, hence its writes are undone when it fails.
+            Map<String, Document> snapshot = new LinkedHashMap<>(collection.documents);
+            try {
+                return new CosmosResponse<>(emulation.execute(this, collectionLink, procedureParams),
+                        REQUEST_CHARGE);
+            } catch (DocumentClientException | RuntimeException e) {
+                collection.documents.clear();
+                collection.documents.putAll(snapshot);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public CosmosResponse<Document> createDocument(String collectionLink, Document document, RequestOptions options,
+                                                   boolean disableAutomaticIdGeneration)
+            throws DocumentClientException {
+        return writeDocument(collectionLink, document, disableAutomaticIdGeneration, false);
+    }
+
+    @Override
+    public CosmosResponse<Document> upsertDocument(String collectionLink, Document document, RequestOptions options,
+                                                   boolean disableAutomaticIdGeneration)
+            throws DocumentClientException {
+        return writeDocument(collectionLink, document, disableAutomaticIdGeneration, true);
+    }
+
+    @Override
+    public CosmosResponse<Document> replaceDocument(Document document, RequestOptions options)
+            throws DocumentClientException {
+        String link = document.getSelfLink();
+        if (link == null) {
+            throw newException(STATUS_CODE_BAD_REQUEST, "Document '" + document.getId() + "' has no self link. ");
+        }
+        StoredCollection collection = getCollection(getCollectionLink(link));
+        Document replacement = new Document(document.toJson());
+        synchronized (collection) {
+            if (!collection.documents.containsKey(getDocumentId(link))) {
+                throw newException(STATUS_CODE_NOT_FOUND, "Document '" + link + "' does not exist. ");
+            }
+            collection.documents.put(getDocumentId(link), replacement);
+        }
+        return new CosmosResponse<>(new Document(replacement.toJson()), REQUEST_CHARGE);
+    }
+
+    @Override
+    public CosmosResponse<Document> readDocument(String documentLink, RequestOptions options)
+            throws DocumentClientException {
+        StoredCollection collection = getCollection(getCollectionLink(documentLink));
+        Document document;
+        synchronized (collection) {
+            document = collection.documents.get(getDocumentId(documentLink));
+        }
+        if (document == null) {
+            throw newException(STATUS_CODE_NOT_FOUND, "Document '" + documentLink + "' does not exist. ");
+        }
+        return new CosmosResponse<>(new Document(document.toJson()), REQUEST_CHARGE);
+    }
+
+    @Override
+    public CosmosResponse<Document> deleteDocument(String documentLink, RequestOptions options)
+            throws DocumentClientException {
+        StoredCollection collection = getCollection(getCollectionLink(documentLink));
+        Document removed;
+        synchronized (collection) {
+            removed = collection.documents.remove(getDocumentId(documentLink));
+        }
+        if (removed == null) {
+            throw newException(STATUS_CODE_NOT_FOUND, "Document '" + documentLink + "' does not exist. ");
+        }
+        return new CosmosResponse<>(null, REQUEST_CHARGE);
+    }
+
+    @Override
+    public CosmosQuery queryDocuments(String collectionLink, SqlQuerySpec query, FeedOptions feedOptions) {
+        int pageSize = feedOptions == null || feedOptions.getPageSize() == null || feedOptions.getPageSize() <= 0 ?
+                DEFAULT_PAGE_SIZE : feedOptions.getPageSize();
+        return new CosmosQuery() {
+            private List<Document> results;
+            private int fetched;
+
+            @Override
+            public List<Document> fetchNextPage() throws DocumentClientException {
+                if (results == null) {
+                    results = runQuery(collectionLink, query);
+                } else if (fetched >= results.size()) {
+                    return null;
+                }
+                List<Document> page = new ArrayList<>(results.subList(fetched,
+                        Math.min(fetched + pageSize, results.size())));
+                fetched += page.size();
+                return page;
+            }
+
+            @Override
+            public double getRequestCharge() {
+                return REQUEST_CHARGE;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        //The account outlives the client, so that other clients of the same endpoint keep its documents.
+    }
+
+    private List<Document> runQuery(String collectionLink, SqlQuerySpec query) throws DocumentClientException {
+        StoredCollection collection = getCollection(collectionLink);
+        Map<String, Object> parameters = new HashMap<>();
+        if (query.getParameters() != null) {
+            for (SqlParameter parameter : query.getParameters()) {
+                parameters.put(parameter.getName(), parameter.get("value"));
+            }
+        }
+        List<Document> documents;
+        synchronized (collection) {
+            documents = new ArrayList<>(collection.documents.values());
+        }
+        synchronized (account.executedQueries) {
+            if (account.executedQueries.size() == MAX_EXECUTED_QUERIES) {
+                account.executedQueries.removeFirst();
+            }
+            account.executedQueries.addLast(query.getQueryText());
+        }
+        return parse(query.getQueryText()).execute(documents, parameters);
+    }
+
+    private InMemorySqlQuery parse(String queryText) throws DocumentClientException {
+        InMemorySqlQuery parsedQuery = parsedQueries.get(queryText);
+        if (parsedQuery == null) {
+            parsedQuery = InMemorySqlQuery.parse(queryText);
+            parsedQueries.put(queryText, parsedQuery);
+        }
+        return parsedQuery;
+    }
+
+    private <T extends Resource> List<T> queryResources(List<T> resources, String query,
+                                                        Function<String, T> deserializer)
+            throws DocumentClientException {
+        List<Document> candidates = new ArrayList<>(resources.size());
+        for (T resource : resources) {
+            candidates.add(new Document(resource.toJson()));
+        }
+        List<T> matches = new ArrayList<>();
+        for (Document match : parse(query).execute(candidates, Collections.emptyMap())) {
+            matches.add(deserializer.apply(match.toJson()));
+        }
+        return matches;
+    }
+
+    private CosmosResponse<Document> writeDocument(String collectionLink, Document document,
+                                                   boolean disableAutomaticIdGeneration, boolean replaceExisting)
+            throws DocumentClientException {
+        StoredCollection collection = getCollection(collectionLink);
+        Document written = new Document(document.toJson());
+        if (written.getId() == null) {
+            if (disableAutomaticIdGeneration) {
+                throw newException(STATUS_CODE_BAD_REQUEST, "Document has no id. ");
+            }
+            written.setId(UUID.randomUUID().toString());
+        }
+        written.set(SELF_LINK, normalizeLink(collectionLink) + LINK_DOCUMENTS + written.getId());
+        synchronized (collection) {
+            if (!replaceExisting && collection.documents.containsKey(written.getId())) {
+                throw newException(STATUS_CODE_CONFLICT, "Document '" + written.getId() + "' already exists. ");
+            }
+            collection.documents.put(written.getId(), written);
+        }
+        return new CosmosResponse<>(new Document(written.toJson()), REQUEST_CHARGE);
+    }
+
+    private StoredCollection getCollection(String collectionLink) throws DocumentClientException {
+        StoredCollection collection = account.collections.get(normalizeLink(collectionLink));
+        if (collection == null) {
+            throw newException(STATUS_CODE_NOT_FOUND, "Collection '" + collectionLink + "' does not exist. ");
+        }
+        return collection;
+    }
+
+    private static String getCollectionLink(String documentLink) {
+        String link = normalizeLink(documentLink);
+        return link.substring(0, Math.max(0, link.lastIndexOf(LINK_DOCUMENTS)));
+    }
+
+    private static String getDocumentId(String documentLink) {
+        String link = normalizeLink(documentLink);
+        return link.substring(link.lastIndexOf(LINK_DOCUMENTS) + LINK_DOCUMENTS.length());
+    }
+
+    private static String normalizeLink(String link) {
+        int start = link.startsWith("/") ? 1 : 0;
+        int end = link.endsWith("/") ? link.length() - 1 : link.length();
+        return link.substring(start, Math.max(start, end));
+    }
+
+    /**
+     * Method for creating the exception the service would report for a failed request.
+     *
+     * @param statusCode the status code of the failure.
+     * @param message    the description of the failure.
+     * @return the exception.
+     */
+    static DocumentClientException newException(int statusCode, String message) {
+        Error error = new Error();
+        error.set("code", String.valueOf(statusCode));
+        error.set("message", message);
+        return new DocumentClientException(statusCode, error, null);
+    }
+
+    /**
+     * Java equivalent of the bulk insert stored procedure, which creates the given documents in order.
+     */
+    private static String bulkInsert(InMemoryCosmosClient client, String collectionLink, Object[] procedureParams)
+            throws DocumentClientException {
+        List<?> documents = (List<?>) procedureParams[0];
+        boolean disableAutomaticIdGeneration = Boolean.TRUE.equals(procedureParams[1]);
+        for (Object document : documents) {
+            client.writeDocument(collectionLink, toDocument(document), disableAutomaticIdGeneration, false);
+        }
+        return String.valueOf(documents.size());
+    }
+
+    /**
+     * Java equivalent of the transactional batch stored procedure, which applies the given operations in order.
+     */
+    private static String transactionalBatch(InMemoryCosmosClient client, String collectionLink,
+                                             Object[] procedureParams) throws DocumentClientException {
+        List<?> operations = (List<?>) procedureParams[0];
+        boolean disableAutomaticIdGeneration = Boolean.TRUE.equals(procedureParams[1]);
+        for (Object value : operations) {
+            Map<?, ?> operation = (Map<?, ?>) value;
+            Object type = operation.get(CosmosTableConstants.BATCH_OPERATION_TYPE);
+            Document document = toDocument(operation.get(CosmosTableConstants.BATCH_OPERATION_DOCUMENT));
+            if (CosmosTableConstants.BATCH_OPERATION_CREATE.equals(type)) {
+                client.writeDocument(collectionLink, document, disableAutomaticIdGeneration, false);
+            } else if (CosmosTableConstants.BATCH_OPERATION_UPSERT.equals(type)) {
+                client.writeDocument(collectionLink, document, disableAutomaticIdGeneration, true);
+            } else if (CosmosTableConstants.BATCH_OPERATION_UPDATE_OR_CREATE.equals(type)) {
+                if (!client.setValues(collectionLink, operation.get(CosmosTableConstants.BATCH_OPERATION_ID),
+                        (Map<?, ?>) operation.get(CosmosTableConstants.BATCH_OPERATION_SET))) {
+                    client.writeDocument(collectionLink, document, disableAutomaticIdGeneration, false);
+                }
+            } else {
+                throw newException(STATUS_CODE_BAD_REQUEST, "Unknown batch operation '" + type + "'. ");
+            }
+        }
+        return String.valueOf(operations.size());
+    }
+
+    /**
+     * Java equivalent of the patch stored procedure, which sets the given values on a document if it exists.
+     */
+    private static String patch(InMemoryCosmosClient client, String collectionLink, Object[] procedureParams)
+            throws DocumentClientException {
+        return client.setValues(collectionLink, procedureParams[0], (Map<?, ?>) procedureParams[1]) ? "1" : "0";
+    }
+
+    /**
+     * Java equivalent of the update by condition stored procedure, which sets the given values on all documents
+     * matching a query, running the query again from the start once the documents it returned have been replaced.
+     * It yields after replacing {@value #MAX_PROCEDURE_DOCUMENTS} documents, as the service stops a stored procedure
+     * once its time budget runs out.
+     */
+    private static String updateByCondition(InMemoryCosmosClient client, String collectionLink,
+                                            Object[] procedureParams) throws DocumentClientException {
+        SqlQuerySpec query = toQuerySpec((Map<?, ?>) procedureParams[0]);
+        Set<String> replaced = new HashSet<>();
+        while (true) {
+            List<Document> pending = new ArrayList<>();
+            for (Document document : client.runQuery(collectionLink, query)) {
+                if (!replaced.contains(document.getId())) {
+                    pending.add(document);
+                }
+            }
+            if (pending.isEmpty()) {
+                return toProcedureResult(replaced.size(), true);
+            }
+            for (Document document : pending) {
+                if (replaced.size() == MAX_PROCEDURE_DOCUMENTS) {
+                    return toProcedureResult(replaced.size(), false);
+                }
+                client.setValues(collectionLink, document.getId(), (Map<?, ?>) procedureParams[1]);
+                replaced.add(document.getId());
+            }
+        }
+    }
+
+    /**
+     * Java equivalent of the delete by condition stored procedure, which deletes all documents matching a query,
+     * running the query again from the start once the documents it returned have been deleted. As partition keys are
+     * not kept apart in memory, the documents of all partitions are deleted. It yields after deleting
+     * {@value #MAX_PROCEDURE_DOCUMENTS} documents, as the service stops a stored procedure once its time budget runs
+     * out.
+     */
+    private static String deleteByCondition(InMemoryCosmosClient client, String collectionLink,
+                                            Object[] procedureParams) throws DocumentClientException {
+        SqlQuerySpec query = toQuerySpec((Map<?, ?>) procedureParams[0]);
+        int deleted = 0;
+        while (true) {
+            List<Document> documents = client.runQuery(collectionLink, query);
+            if (documents.isEmpty()) {
+                return toProcedureResult(deleted, true);
+            }
+            for (Document document : documents) {
+                if (deleted == MAX_PROCEDURE_DOCUMENTS) {
+                    return toProcedureResult(deleted, false);
+                }
+                client.deleteDocument(normalizeLink(collectionLink) + LINK_DOCUMENTS + document.getId(), null);
+                deleted++;
+            }
+        }
+    }
+
+    private static SqlQuerySpec toQuerySpec(Map<?, ?> procedureQuery) {
+        SqlParameterCollection parameters = new SqlParameterCollection();
+        for (Object value : (List<?>) procedureQuery.get(CosmosTableConstants.PROCEDURE_QUERY_PARAMETERS)) {
+            Map<?, ?> parameter = (Map<?, ?>) value;
+            parameters.add(new SqlParameter(
+                    String.valueOf(parameter.get(CosmosTableConstants.PROCEDURE_QUERY_PARAMETER_NAME)),
+                    parameter.get(CosmosTableConstants.PROCEDURE_QUERY_PARAMETER_VALUE)));
+        }
+        return new SqlQuerySpec(String.valueOf(procedureQuery.get(CosmosTableConstants.PROCEDURE_QUERY_TEXT)),
+                parameters);
+    }
+
+    private static String toProcedureResult(int count, boolean done) {
+        Document result = new Document();
+        result.set(CosmosTableConstants.PROCEDURE_RESULT_COUNT, count);
+        result.set(CosmosTableConstants.PROCEDURE_RESULT_DONE, done);
+        return result.toJson();
+    }
+
+    private boolean setValues(String collectionLink, Object documentId, Map<?, ?> setValues)
+            throws DocumentClientException {
+        Document existing;
+        try {
+            existing = readDocument(normalizeLink(collectionLink) + LINK_DOCUMENTS + documentId, null).getResource();
+        } catch (DocumentClientException e) {
+            if (e.getStatusCode() == STATUS_CODE_NOT_FOUND) {
+                return false;
+            }
+            throw e;
+        }
+        for (Map.Entry<?, ?> setValue : setValues.entrySet()) {
+            existing.set(String.valueOf(setValue.getKey()), setValue.getValue());
+        }
+        replaceDocument(existing, null);
+        return true;
+    }
+
+    /**
+     * Method for converting an argument of a stored procedure to a document, as the service would deserialize it.
+     *
+     * @param value a document, or a map of its properties.
+     * @return the document.
+     */
+    static Document toDocument(Object value) {
+        if (value instanceof Document) {
+            return (Document) value;
+        }
+        Document document = new Document();
+        for (Map.Entry<?, ?> property : ((Map<?, ?>) value).entrySet()) {
+            document.set(String.valueOf(property.getKey()), property.getValue());
+        }
+        return document;
+    }
+
+    /**
+     * A Java equivalent of a stored procedure registered by the table. It runs while holding the lock of its
+     * collection, hence it is not interleaved with other writes to the collection, and its writes are undone if it
+     * fails.
+     */
+    @FunctionalInterface
+    interface StoredProcedureEmulation {
+        String execute(InMemoryCosmosClient client, String collectionLink, Object[] procedureParams)
+                throws DocumentClientException;
+    }
+
+    /**
+     * The databases and collections of an endpoint, along with the document queries last executed on it.
+     */
+    private static final class Account {
+        private final Map<String, Database> databases = new ConcurrentHashMap<>();
+        private final Map<String, StoredCollection> collections = new ConcurrentHashMap<>();
+        private final Deque<String> executedQueries = new ArrayDeque<>();
+    }
+
+    /**
+     * The documents and stored procedures of a collection, in insertion order.
+     */
+    private static final class StoredCollection {
+        private final DocumentCollection definition;
+        private final Map<String, Document> documents = new LinkedHashMap<>();
+        private final Map<String, StoredProcedure> storedProcedures = new ConcurrentHashMap<>();
+
+        private StoredCollection(DocumentCollection definition) {
+            this.definition = definition;
+        }
+    }
+}
@@ -0,0 +1,866 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb.client;
+
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * A query of the Cosmos DB SQL dialect, evaluated over documents held in memory by the {@link InMemoryCosmosClient}.
+ * The subset understood is the one the CosmosDB Event Table generates: a single collection, projections with aliases,
+ * DISTINCT, TOP, WHERE, GROUP BY, ORDER BY and OFFSET/LIMIT, comparison, logical and arithmetic operators, the
+ * aggregates COUNT, SUM, AVG, MIN and MAX, and a handful of scalar functions. Joins and sub-queries are not supported.
+ */
+final class InMemorySqlQuery {
+
+    /**
+     * The value of a property a document does not have, which Cosmos DB distinguishes from null.
+     */
+    static final Object UNDEFINED = new Object() {
+        @Override
+        public String toString() {
+            return "undefined";
+        }
+    };
+
+    private final boolean distinct;
+    private final Long top;
+    private final List<String> selectNames;
+    private final List<Expression> selectExpressions;
+    private final Expression filter;
+    private final List<Expression> groupBy;
+    private final List<Expression> orderBy;
+    private final List<Boolean> descending;
+    private final Long offset;
+    private final Long limit;
+    private final boolean aggregated;
+
+    private InMemorySqlQuery(Parser parser) {
+        this.distinct = parser.distinct;
+        this.top = parser.top;
+        this.selectNames = parser.selectNames;
+        this.selectExpressions = parser.selectExpressions;
+        this.filter = parser.filter;
+        this.groupBy = parser.groupBy;
+        this.orderBy = parser.orderBy;
+        this.descending = parser.descending;
+        this.offset = parser.offset;
+        this.limit = parser.limit;
+        this.aggregated = parser.aggregated;
+    }
+
+    /**
+     * Method which parses the text of a query.
+     *
+     * @param queryText the text of the query.
+     * @return the parsed query.
+     * @throws DocumentClientException with status code 400 if the query is malformed or not supported.
+     */
+    static InMemorySqlQuery parse(String queryText) throws DocumentClientException {
+        try {
+            return new InMemorySqlQuery(new Parser(queryText).parseQuery());
+        } catch (IllegalArgumentException e) {
+            throw InMemoryCosmosClient.newException(InMemoryCosmosClient.STATUS_CODE_BAD_REQUEST,
+                    "Failed to parse query '" + queryText + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method which runs the query over the given documents.
+     *
+     * @param documents  the documents of the collection.
+     * @param parameters the values of the named parameters of the query.
+     * @return the results of the query, in order.
+     */
+    List<Document> execute(Collection<Document> documents, Map<String, Object> parameters) {
+        List<Document> matches = new ArrayList<>();
+        for (Document document : documents) {
+            if (filter == null || Boolean.TRUE.equals(filter.evaluate(new Scope(document, null, parameters)))) {
+                matches.add(document);
+            }
+        }
+        List<Scope> rows = new ArrayList<>();
+        if (aggregated || !groupBy.isEmpty()) {
+            Map<List<Object>, List<Document>> groups = new LinkedHashMap<>();
+            for (Document document : matches) {
+                List<Object> key = new ArrayList<>(groupBy.size());
+                for (Expression expression : groupBy) {
+                    key.add(expression.evaluate(new Scope(document, null, parameters)));
+                }
+                groups.computeIfAbsent(key, value -> new ArrayList<>()).add(document);
+            }
+            if (groups.isEmpty() && groupBy.isEmpty()) {
+                //An aggregate over no documents still yields a single row.
+                groups.put(Collections.emptyList(), Collections.emptyList());
+            }
+            for (List<Document> group : groups.values()) {
+                rows.add(new Scope(group.isEmpty() ? null : group.get(0), group, parameters));
+            }
+        } else {
+            for (Document document : matches) {
+                rows.add(new Scope(document, null, parameters));
+            }
+        }
+        if (!orderBy.isEmpty()) {
+            rows.sort((left, right) -> {
+                for (int i = 0; i < orderBy.size(); i++) {
+                    int comparison = compareForOrdering(orderBy.get(i).evaluate(left),
+                            orderBy.get(i).evaluate(right));
+                    if (comparison != 0) {
+                        return descending.get(i) ? -comparison : comparison;
+                    }
+                }
+                return 0;
+            });
+        }
+        long skip = offset == null ? 0 : offset;
+        long take = Math.min(top == null ? Long.MAX_VALUE : top, limit == null ? Long.MAX_VALUE : limit);
+        List<Document> results = new ArrayList<>();
+        Set<String> projections = new HashSet<>();
+        long skipped = 0;
+        for (int i = 0; i < rows.size() && results.size() < take; i++) {
+            Document result = project(rows.get(i));
+            //Rows are only skipped once duplicates have been left out.
+            if (distinct && !projections.add(result.toJson())) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+                continue;
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Document project(Scope row) {
+        if (selectExpressions == null) {
+            return new Document(row.document.toJson());
+        }
+        Document result = new Document();
+        for (int i = 0; i < selectExpressions.size(); i++) {
+            Object value = selectExpressions.get(i).evaluate(row);
+            if (value != UNDEFINED) {
+                result.set(selectNames.get(i), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method which reads a property of a document, normalizing its value to the form it would take after a round trip
+     * through JSON.
+     *
+     * @param document the document.
+     * @param property the name of the property.
+     * @return the value of the property, or {@link #UNDEFINED} if the document does not have it.
+     */
+    static Object getProperty(Document document, String property) {
+        if (document == null || !document.has(property)) {
+            return UNDEFINED;
+        }
+        return normalize(document.get(property));
+    }
+
+    static Object normalize(Object value) {
+        //The JSON null of the document model equals null without being null.
+        if (value == null || value.equals(null)) {
+            return null;
+        }
+        if (value instanceof Float) {
+            return Double.valueOf(value.toString());
+        }
+        return value;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Method which compares two values the way Cosmos DB does. Values of different types are only ever unequal, and
+     * comparing anything with an undefined value yields an undefined value.
+     *
+     * @param left    the left operand.
+     * @param right   the right operand.
+     * @param outcome the function which maps the result of a comparison to the result of the operator, given whether
+     *                only equality is defined between the operands. It returns null if the operator is not defined.
+     * @return true, false or {@link #UNDEFINED}.
+     */
+    private static Object compareValues(Object left, Object right, BiFunction<Integer, Boolean, Boolean> outcome) {
+        if (left == UNDEFINED || right == UNDEFINED) {
+            return UNDEFINED;
+        }
+        if (left == null || right == null) {
+            Boolean result = left == right ? outcome.apply(0, false) : outcome.apply(1, true);
+            return result == null ? UNDEFINED : result;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return outcome.apply(Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue()),
+                    false);
+        }
+        if (left instanceof String && right instanceof String) {
+            return outcome.apply(((String) left).compareTo((String) right), false);
+        }
+        if (left instanceof Boolean && right instanceof Boolean) {
+            return outcome.apply(((Boolean) left).compareTo((Boolean) right), false);
+        }
+        Boolean result = outcome.apply(left.equals(right) ? 0 : 1, true);
+        return result == null ? UNDEFINED : result;
+    }
+
+    private static int typeRank(Object value) {
+        if (value == UNDEFINED) {
+            return 0;
+        } else if (value == null) {
+            return 1;
+        } else if (value instanceof Boolean) {
+            return 2;
+        } else if (value instanceof Number) {
+            return 3;
+        } else if (value instanceof String) {
+            return 4;
+        }
+        return 5;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareForOrdering(Object left, Object right) {
+        int rank = Integer.compare(typeRank(left), typeRank(right));
+        if (rank != 0) {
+            return rank;
+        }
+        if (left instanceof Number) {
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        if (left instanceof Comparable) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+        return 0;
+    }
+
+    private static Object arithmetic(String operator, Object left, Object right) {
+        if (!(left instanceof Number) || !(right instanceof Number)) {
+            return UNDEFINED;
+        }
+        if (isIntegral(left) && isIntegral(right) && !operator.equals("/")) {
+            long l = ((Number) left).longValue();
+            long r = ((Number) right).longValue();
+            switch (operator) {
+                case "+":
+                    return l + r;
+                case "-":
+                    return l - r;
+                case "*":
+                    return l * r;
+                default:
+                    return r == 0 ? UNDEFINED : l % r;
+            }
+        }
+        double l = ((Number) left).doubleValue();
+        double r = ((Number) right).doubleValue();
+        switch (operator) {
+            case "+":
+                return l + r;
+            case "-":
+                return l - r;
+            case "*":
+                return l * r;
+            case "/":
+                return r == 0 ? UNDEFINED : l / r;
+            default:
+                return r == 0 ? UNDEFINED : l % r;
+        }
+    }
+
+    /**
+     * The document, or group of documents, an expression is evaluated on.
+     */
+    private static final class Scope {
+        private final Document document;
+        private final List<Document> group;
+        private final Map<String, Object> parameters;
+
+        private Scope(Document document, List<Document> group, Map<String, Object> parameters) {
+            this.document = document;
+            this.group = group;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * A parsed expression.
+     */
+    @FunctionalInterface
+    private interface Expression {
+        Object evaluate(Scope scope);
+    }
+
+    /**
+     * A recursive descent parser of the supported subset of the dialect.
+     */
+    private static final class Parser {
+
+        private final List<String> tokens;
+        private int position;
+        private boolean distinct;
+        private Long top;
+        private List<String> selectNames;
+        private List<Expression> selectExpressions;
+        private Expression filter;
+        private List<Expression> groupBy = new ArrayList<>();
+        private List<Expression> orderBy = new ArrayList<>();
+        private List<Boolean> descending = new ArrayList<>();
+        private Long offset;
+        private Long limit;
+        private boolean aggregated;
+
+        private Parser(String queryText) {
+            this.tokens = tokenize(queryText);
+        }
+
+        private Parser parseQuery() {
+            expectKeyword("SELECT");
+            distinct = acceptKeyword("DISTINCT");
+            if (acceptKeyword("TOP")) {
+                top = parseCount();
+            }
+            List<String> pendingNames = new ArrayList<>();
+            List<Expression> pendingExpressions = new ArrayList<>();
+            if (!accept("*")) {
+                do {
+                    int start = position;
+                    pendingExpressions.add(parseExpression());
+                    if (acceptKeyword("AS")) {
+                        pendingNames.add(next());
+                    } else {
+                        pendingNames.add(defaultName(start, pendingNames.size() + 1));
+                    }
+                } while (accept(","));
+                selectNames = pendingNames;
+                selectExpressions = pendingExpressions;
+            }
+            expectKeyword("FROM");
+            //The collection may be given an alias, which is not checked against the property paths of the query.
+            next();
+            if (position < tokens.size() && isIdentifier(peek()) && !isClauseKeyword(peek())) {
+                next();
+            }
+            if (acceptKeyword("WHERE")) {
+                filter = parseExpression();
+            }
+            if (acceptKeyword("GROUP")) {
+                expectKeyword("BY");
+                do {
+                    groupBy.add(parseExpression());
+                } while (accept(","));
+            }
+            if (acceptKeyword("ORDER")) {
+                expectKeyword("BY");
+                do {
+                    orderBy.add(parseExpression());
+                    if (acceptKeyword("DESC")) {
+                        descending.add(true);
+                    } else {
+                        acceptKeyword("ASC");
+                        descending.add(false);
+                    }
+                } while (accept(","));
+            }
+            if (acceptKeyword("OFFSET")) {
+                offset = parseCount();
+                expectKeyword("LIMIT");
+                limit = parseCount();
+            }
+            if (position < tokens.size()) {
+                throw new IllegalArgumentException("unexpected '" + peek() + "'");
+            }
+            if (selectExpressions == null && (aggregated || !groupBy.isEmpty())) {
+                throw new IllegalArgumentException("'*' cannot be selected from an aggregate query");
+            }
+            return this;
+        }
+
+        private String defaultName(int start, int ordinal) {
+            //A property path is named after its last property, and any other expression after its position.
+            String name = null;
+            boolean path = isIdentifier(tokens.get(start));
+            int i = start + 1;
+            while (path && i < position) {
+                if (tokens.get(i).equals(".") && i + 1 < position && isIdentifier(tokens.get(i + 1))) {
+                    name = tokens.get(i + 1);
+                    i += 2;
+                } else if (tokens.get(i).equals("[") && i + 2 < position && isStringLiteral(tokens.get(i + 1)) &&
+                        tokens.get(i + 2).equals("]")) {
+                    name = tokens.get(i + 1).substring(1);
+                    i += 3;
+                } else {
+                    path = false;
+                }
+            }
+            return path && name != null ? name : "$" + ordinal;
+        }
+
+        private long parseCount() {
+            String token = next();
+            try {
+                return Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("expected a number but found '" + token + "'");
+            }
+        }
+
+        private Expression parseExpression() {
+            Expression left = parseAnd();
+            while (acceptKeyword("OR")) {
+                Expression l = left;
+                Expression r = parseAnd();
+                left = scope -> {
+                    Object lv = l.evaluate(scope);
+                    Object rv = r.evaluate(scope);
+                    if (Boolean.TRUE.equals(lv) || Boolean.TRUE.equals(rv)) {
+                        return true;
+                    }
+                    return Boolean.FALSE.equals(lv) && Boolean.FALSE.equals(rv) ? false : UNDEFINED;
+                };
+            }
+            return left;
+        }
+
+        private Expression parseAnd() {
+            Expression left = parseNot();
+            while (acceptKeyword("AND")) {
+                Expression l = left;
+                Expression r = parseNot();
+                left = scope -> {
+                    Object lv = l.evaluate(scope);
+                    Object rv = r.evaluate(scope);
+                    if (Boolean.FALSE.equals(lv) || Boolean.FALSE.equals(rv)) {
+                        return false;
+                    }
+                    return Boolean.TRUE.equals(lv) && Boolean.TRUE.equals(rv) ? true : UNDEFINED;
+                };
+            }
+            return left;
+        }
+
+        private Expression parseNot() {
+            if (acceptKeyword("NOT")) {
+                Expression operand = parseNot();
+                return scope -> {
+                    Object value = operand.evaluate(scope);
+                    return value instanceof Boolean ? !(Boolean) value : UNDEFINED;
+                };
+            }
+            return parseComparison();
+        }
+
+        private Expression parseComparison() {
+            Expression left = parseAdditive();
+            if (acceptKeyword("IN")) {
+                expect("(");
+                List<Expression> candidates = new ArrayList<>();
+                do {
+                    candidates.add(parseExpression());
+                } while (accept(","));
+                expect(")");
+                return scope -> {
+                    Object value = left.evaluate(scope);
+                    for (Expression candidate : candidates) {
+                        if (Boolean.TRUE.equals(compareValues(value, candidate.evaluate(scope),
+                                (comparison, equalityOnly) -> comparison == 0))) {
+                            return true;
+                        }
+                    }
+                    return value == UNDEFINED ? UNDEFINED : false;
+                };
+            }
+            String operator = peekOperator("=", "!=", "<>", "<=", ">=", "<", ">");
+            if (operator == null) {
+                return left;
+            }
+            position++;
+            Expression right = parseAdditive();
+            BiFunction<Integer, Boolean, Boolean> outcome;
+            switch (operator) {
+                case "=":
+                    outcome = (comparison, equalityOnly) -> comparison == 0;
+                    break;
+                case "!=":
+                case "<>":
+                    outcome = (comparison, equalityOnly) -> comparison != 0;
+                    break;
+                case "<":
+                    outcome = (comparison, equalityOnly) -> equalityOnly ? null : comparison < 0;
+                    break;
+                case "<=":
+                    outcome = (comparison, equalityOnly) -> equalityOnly ? null : comparison <= 0;
+                    break;
+                case ">":
+                    outcome = (comparison, equalityOnly) -> equalityOnly ? null : comparison > 0;
+                    break;
+                default:
+                    outcome = (comparison, equalityOnly) -> equalityOnly ? null : comparison >= 0;
+                    break;
+            }
+            BiFunction<Integer, Boolean, Boolean> comparator = outcome;
+            return scope -> compareValues(left.evaluate(scope), right.evaluate(scope), comparator);
+        }
+
+        private Expression parseAdditive() {
+            Expression left = parseMultiplicative();
+            String operator;
+            while ((operator = peekOperator("+", "-")) != null) {
+                position++;
+                Expression l = left;
+                Expression r = parseMultiplicative();
+                String op = operator;
+                left = scope -> arithmetic(op, l.evaluate(scope), r.evaluate(scope));
+            }
+            return left;
+        }
+
+        private Expression parseMultiplicative() {
+            Expression left = parseUnary();
+            String operator;
+            while ((operator = peekOperator("*", "/", "%")) != null) {
+                position++;
+                Expression l = left;
+                Expression r = parseUnary();
+                String op = operator;
+                left = scope -> arithmetic(op, l.evaluate(scope), r.evaluate(scope));
+            }
+            return left;
+        }
+
+        private Expression parseUnary() {
+            if (accept("-")) {
+                Expression operand = parseUnary();
+                return scope -> arithmetic("-", 0L, operand.evaluate(scope));
+            }
+            return parsePrimary();
+        }
+
+        private Expression parsePrimary() {
+            String token = next();
+            if (token.equals("(")) {
+                Expression inner = parseExpression();
+                expect(")");
+                return inner;
+            }
+            if (isStringLiteral(token)) {
+                String value = token.substring(1);
+                return scope -> value;
+            }
+            if (token.startsWith("@")) {
+                return scope -> scope.parameters.containsKey(token) ?
+                        normalize(scope.parameters.get(token)) : UNDEFINED;
+            }
+            if (Character.isDigit(token.charAt(0))) {
+                Object value = token.contains(".") || token.contains("e") || token.contains("E") ?
+                        (Object) Double.parseDouble(token) : (Object) Long.parseLong(token);
+                return scope -> value;
+            }
+            if (!isIdentifier(token)) {
+                throw new IllegalArgumentException("unexpected '" + token + "'");
+            }
+            switch (token.toLowerCase(Locale.ENGLISH)) {
+                case "true":
+                    return scope -> true;
+                case "false":
+                    return scope -> false;
+                case "null":
+                    return scope -> null;
+                case "undefined":
+                    return scope -> UNDEFINED;
+                default:
+                    break;
+            }
+            if (accept("(")) {
+                return parseFunction(token);
+            }
+            //A property path starts with the alias of the collection, followed by property names or quoted ones.
+            List<String> path = new ArrayList<>();
+            while (position < tokens.size() && (peek().equals(".") || peek().equals("["))) {
+                if (accept(".")) {
+                    path.add(next());
+                } else {
+                    position++;
+                    String property = next();
+                    if (!isStringLiteral(property)) {
+                        throw new IllegalArgumentException("expected a quoted property name but found '" +
+                                property + "'");
+                    }
+                    path.add(property.substring(1));
+                    expect("]");
+                }
+            }
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("'" + token + "' is not a property path");
+            }
+            return scope -> {
+                Object value = getProperty(scope.document, path.get(0));
+                for (int i = 1; i < path.size() && value != UNDEFINED; i++) {
+                    value = value instanceof Map && ((Map<?, ?>) value).containsKey(path.get(i)) ?
+                            normalize(((Map<?, ?>) value).get(path.get(i))) : UNDEFINED;
+                }
+                return value;
+            };
+        }
+
+        private Expression parseFunction(String name) {
+            List<Expression> arguments = new ArrayList<>();
+            if (!accept(")")) {
+                do {
+                    arguments.add(parseExpression());
+                } while (accept(","));
+                expect(")");
+            }
+            String function = name.toUpperCase(Locale.ENGLISH);
+            switch (function) {
+                case "COUNT":
+                case "SUM":
+                case "AVG":
+                case "MIN":
+                case "MAX":
+                    if (arguments.size() != 1) {
+                        throw new IllegalArgumentException(function + " takes a single argument");
+                    }
+                    aggregated = true;
+                    return aggregate(function, arguments.get(0));
+                case "CONTAINS":
+                    return stringFunction(arguments, String::contains);
+                case "STARTSWITH":
+                    return stringFunction(arguments, String::startsWith);
+                case "ENDSWITH":
+                    return stringFunction(arguments, String::endsWith);
+                case "LOWER":
+                    return scope -> {
+                        Object value = arguments.get(0).evaluate(scope);
+                        return value instanceof String ? ((String) value).toLowerCase(Locale.ENGLISH) : UNDEFINED;
+                    };
+                case "UPPER":
+                    return scope -> {
+                        Object value = arguments.get(0).evaluate(scope);
+                        return value instanceof String ? ((String) value).toUpperCase(Locale.ENGLISH) : UNDEFINED;
+                    };
+                case "LENGTH":
+                    return scope -> {
+                        Object value = arguments.get(0).evaluate(scope);
+                        return value instanceof String ? (Object) (long) ((String) value).length() : UNDEFINED;
+                    };
+                case "ABS":
+                    return scope -> {
+                        Object value = arguments.get(0).evaluate(scope);
+                        if (!(value instanceof Number)) {
+                            return UNDEFINED;
+                        }
+                        return isIntegral(value) ? (Object) Math.abs(((Number) value).longValue()) :
+                                (Object) Math.abs(((Number) value).doubleValue());
+                    };
+                case "IS_DEFINED":
+                    return scope -> arguments.get(0).evaluate(scope) != UNDEFINED;
+                case "IS_NULL":
+                    return scope -> arguments.get(0).evaluate(scope) == null;
+                default:
+                    throw new IllegalArgumentException("function '" + name + "' is not supported");
+            }
+        }
+
+        private Expression stringFunction(List<Expression> arguments, BiFunction<String, String, Boolean> test) {
+            if (arguments.size() < 2) {
+                throw new IllegalArgumentException("string functions take at least two arguments");
+            }
+            return scope -> {
+                Object value = arguments.get(0).evaluate(scope);
+                Object operand = arguments.get(1).evaluate(scope);
+                if (!(value instanceof String) || !(operand instanceof String)) {
+                    return UNDEFINED;
+                }
+                boolean ignoreCase = arguments.size() > 2 && Boolean.TRUE.equals(arguments.get(2).evaluate(scope));
+                return ignoreCase ? test.apply(((String) value).toLowerCase(Locale.ENGLISH),
+                        ((String) operand).toLowerCase(Locale.ENGLISH)) : test.apply((String) value, (String) operand);
+            };
+        }
+
+        private Expression aggregate(String function, Expression argument) {
+            return scope -> {
+                List<Document> group = scope.group == null ? Collections.singletonList(scope.document) : scope.group;
+                List<Object> values = new ArrayList<>(group.size());
+                for (Document document : group) {
+                    Object value = argument.evaluate(new Scope(document, null, scope.parameters));
+                    if (value != UNDEFINED) {
+                        values.add(value);
+                    }
+                }
+                switch (function) {
+                    case "COUNT":
+                        return (long) values.size();
+                    case "SUM":
+                    case "AVG":
+                        if (values.isEmpty() || !values.stream().allMatch(value -> value instanceof Number)) {
+                            return function.equals("SUM") && values.isEmpty() ? (Object) 0L : UNDEFINED;
+                        }
+                        Object sum = 0L;
+                        for (Object value : values) {
+                            sum = arithmetic("+", sum, value);
+                        }
+                        return function.equals("SUM") ? sum : arithmetic("/", sum, (double) values.size());
+                    default:
+                        Comparator<Object> order = InMemorySqlQuery::compareForOrdering;
+                        return values.isEmpty() ? UNDEFINED : function.equals("MIN") ?
+                                values.stream().min(order).get() : values.stream().max(order).get();
+                }
+            };
+        }
+
+        private String peek() {
+            return tokens.get(position);
+        }
+
+        private String next() {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("unexpected end of query");
+            }
+            return tokens.get(position++);
+        }
+
+        private boolean accept(String symbol) {
+            if (position < tokens.size() && tokens.get(position).equals(symbol)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw new IllegalArgumentException("expected '" + symbol + "'");
+            }
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw new IllegalArgumentException("expected '" + keyword + "'");
+            }
+        }
+
+        private String peekOperator(String... operators) {
+            if (position >= tokens.size()) {
+                return null;
+            }
+            for (String operator : operators) {
+                if (tokens.get(position).equals(operator)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private static boolean isIdentifier(String token) {
+            return Character.isLetter(token.charAt(0)) || token.charAt(0) == '_' || token.charAt(0) == '$';
+        }
+
+        private static boolean isStringLiteral(String token) {
+            return token.startsWith("'") || token.startsWith("\"");
+        }
+
+        private static boolean isClauseKeyword(String token) {
+            switch (token.toUpperCase(Locale.ENGLISH)) {
+                case "WHERE":
+                case "GROUP":
+                case "ORDER":
+                case "OFFSET":
+                case "JOIN":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Method which splits a query into tokens. String literals are kept as a single token prefixed with their
+         * opening quote and with their escapes resolved.
+         */
+        private static List<String> tokenize(String queryText) {
+            List<String> tokens = new ArrayList<>();
+            int i = 0;
+            while (i < queryText.length()) {
+                char c = queryText.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '\'' || c == '"') {
+                    StringBuilder literal = new StringBuilder().append(c);
+                    i++;
+                    while (i < queryText.length() && queryText.charAt(i) != c) {
+                        if (queryText.charAt(i) == '\\' && i + 1 < queryText.length()) {
+                            i++;
+                        }
+                        literal.append(queryText.charAt(i++));
+                    }
+                    if (i >= queryText.length()) {
+                        throw new IllegalArgumentException("unterminated string literal");
+                    }
+                    i++;
+                    tokens.add(literal.toString());
+                } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '@') {
+                    int start = i++;
+                    while (i < queryText.length() && (Character.isLetterOrDigit(queryText.charAt(i)) ||
+                            queryText.charAt(i) == '_' || queryText.charAt(i) == '$' ||
+                            (Character.isDigit(c) && queryText.charAt(i) == '.'))) {
+                        i++;
+                    }
+                    tokens.add(queryText.substring(start, i));
+                } else if (i + 1 < queryText.length() && ("!=".equals(queryText.substring(i, i + 2)) ||
+                        "<>".equals(queryText.substring(i, i + 2)) || "<=".equals(queryText.substring(i, i + 2)) ||
+                        ">=".equals(queryText.substring(i, i + 2)))) {
+                    tokens.add(queryText.substring(i, i + 2));
+                    i += 2;
+                } else if ("()[],.*+-/%=<>".indexOf(c) >= 0) {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    throw new IllegalArgumentException("unexpected character '" + c + "'");
+                }
+            }
+            return tokens;
+        }
+    }
+}
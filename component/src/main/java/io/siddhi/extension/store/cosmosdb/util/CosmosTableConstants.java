@@ -54,6 +54,67 @@ public class CosmosTableConstants {
     public static final String ANNOTATION_ELEMENT_MAX_DEGREE_OF_PARALLELISM = "max.degree.of.parallelism";
     public static final String ANNOTATION_ELEMENT_MAX_BUFFERED_ITEM_COUNT = "max.buffered.item.count";
     public static final String ANNOTATION_ELEMENT_RESPONSE_TOKEN_LIMIT = "response.continuation.token.limit.in.kb";
+    public static final String ANNOTATION_ELEMENT_QUERY_PAGE_SIZE = "query.page.size";
+    public static final String ANNOTATION_ELEMENT_QUERY_PREFETCH_DEPTH = "query.prefetch.depth";
+
+    //Configurable parameters associated with asynchronous writes
+    public static final String ANNOTATION_ELEMENT_ASYNC_WRITE = "is.enable.async.write";
+    public static final String ANNOTATION_ELEMENT_ASYNC_WRITE_QUEUE_SIZE = "async.write.queue.size";
+    public static final String ANNOTATION_ELEMENT_ASYNC_WRITE_WORKER_COUNT = "async.write.worker.count";
+    public static final String ANNOTATION_ELEMENT_ASYNC_WRITE_BATCH_SIZE = "async.write.batch.size";
+    public static final String ANNOTATION_ELEMENT_ASYNC_WRITE_LINGER_MS = "async.write.linger.ms";
+
+    //Configurable parameters associated with bulk inserts
+    public static final String ANNOTATION_ELEMENT_BULK_INSERT = "is.enable.bulk.insert";
+    public static final String ANNOTATION_ELEMENT_BULK_INSERT_BATCH_SIZE = "bulk.insert.batch.size";
+    public static final String ANNOTATION_ELEMENT_WRITE_PARALLELISM = "write.parallelism";
+
+    //Configurable parameters associated with transactional batches
+    public static final String ANNOTATION_ELEMENT_TRANSACTIONAL_BATCH = "is.enable.transactional.batch";
+
+    //Configurable parameters associated with update or insert operations
+    public static final String ANNOTATION_ELEMENT_NATIVE_UPSERT = "is.enable.native.upsert";
+
+    //Configurable parameters associated with update operations
+    public static final String ANNOTATION_ELEMENT_PATCH_UPDATE = "is.enable.patch.update";
+    public static final String ANNOTATION_ELEMENT_SERVER_SIDE_UPDATE = "is.enable.server.side.update";
+
+    //Configurable parameters associated with delete operations
+    public static final String ANNOTATION_ELEMENT_BULK_DELETE = "is.enable.bulk.delete";
+    public static final String ANNOTATION_ELEMENT_DOCUMENT_OPERATION_CONCURRENCY = "document.operation.concurrency";
+
+    //Configurable parameters associated with document keys
+    public static final String ANNOTATION_ELEMENT_PRIMARY_KEY_ID = "is.enable.primary.key.id";
+    public static final String ANNOTATION_ELEMENT_PARTITION_KEY_ATTRIBUTE = "partition.key.attribute";
+
+    //Configurable parameters associated with request throttling
+    public static final String ANNOTATION_ELEMENT_REQUEST_UNITS_PER_SECOND = "request.units.per.second";
+    public static final String ANNOTATION_ELEMENT_THROTTLE_RETRY_SCHEDULING = "is.enable.throttle.retry.scheduling";
+
+    //Default values of the configurable parameters
+    public static final int DEFAULT_ASYNC_WRITE_QUEUE_SIZE = 10000;
+    public static final int DEFAULT_ASYNC_WRITE_WORKER_COUNT = 4;
+    public static final int DEFAULT_ASYNC_WRITE_BATCH_SIZE = 100;
+    public static final int DEFAULT_ASYNC_WRITE_LINGER_MS = 10;
+    public static final int DEFAULT_BULK_INSERT_BATCH_SIZE = 100;
+    public static final int DEFAULT_QUERY_PREFETCH_DEPTH = 0;
+    public static final int DEFAULT_WRITE_PARALLELISM = 1;
+    public static final int DEFAULT_REQUEST_UNITS_PER_SECOND = 0;
+    public static final int DEFAULT_DOCUMENT_OPERATION_CONCURRENCY = 1;
+
+    //Limits imposed by the Cosmos DB service
+    public static final int TRANSACTIONAL_BATCH_MAX_OPERATIONS = 100;
+
+    //Document system properties
+    public static final String DOCUMENT_ID = "id";
+    public static final String DOCUMENT_SELF_LINK = "_self";
+    public static final char DOCUMENT_ID_SEPARATOR = '_';
+    public static final char DOCUMENT_ID_ESCAPE = '~';
+    public static final String DOCUMENT_LINK_FORMAT = "dbs/%s/colls/%s/docs/%s";
+
+    //Status codes returned by the Cosmos DB service
+    public static final int STATUS_CODE_NOT_FOUND = 404;
+    public static final int STATUS_CODE_TOO_MANY_REQUESTS = 429;
 
     //Miscellaneous SQL constants
     public static final String SQL_MATH_ADD = "+";
@@ -82,9 +143,277 @@ public class CosmosTableConstants {
 
     //SQL queries
     public static final String SQL_SELECT_FROM_ROOT = "SELECT * FROM root r WHERE r.id=?";
-    public static final String SQL_SELECT = "SELECT * FROM ? WHERE ?";
+    public static final String SQL_SELECT = "SELECT * FROM %s WHERE %s";
+    public static final String SQL_SELECT_ATTRIBUTES = "SELECT %s FROM %s WHERE %s";
+    public static final String SQL_SELECT_DISTINCT_ATTRIBUTES = "SELECT DISTINCT %s FROM %s WHERE %s";
+    public static final String SQL_SELECT_EXISTS = "SELECT TOP 1 %1$s.id FROM %1$s WHERE %2$s";
+    public static final String SQL_SELECT_OUTDATED = "SELECT * FROM %1$s WHERE (%2$s) AND NOT (%3$s)";
+    public static final String SQL_UNCHANGED_ATTRIBUTE = "IS_DEFINED(%1$s) AND %1$s = %2$s";
+    public static final String SQL_PROPERTY = "%s[\"%s\"]";
+    public static final String SQL_PARAMETER_PREFIX = "@p";
+    public static final String SQL_SELECTION_PARAMETER_PREFIX = "@s";
+    public static final String SQL_SET_PARAMETER_PREFIX = "@u";
+    public static final String SQL_GROUP_BY = " GROUP BY ";
+    public static final String SQL_ORDER_BY = " ORDER BY ";
+    public static final String SQL_ASC = " ASC";
+    public static final String SQL_DESC = " DESC";
+    public static final String SQL_TOP = "TOP ";
+    public static final String SQL_OFFSET = " OFFSET ";
+    public static final String SQL_LIMIT = " LIMIT ";
     public static final String SQL_QUESTION_MARK = "\\?";
 
+    //Stored procedures registered on the collection
+    public static final String BULK_INSERT_PROCEDURE_ID = "siddhiBulkInsert";
+    public static final String BULK_INSERT_PROCEDURE_BODY = "" +
+            "function bulkInsert(documents, disableAutomaticIdGeneration) {\n" +
+            "    var collection = getContext().getCollection();\n" +
+            "    var response = getContext().getResponse();\n" +
+            "    var options = {disableAutomaticIdGeneration: disableAutomaticIdGeneration};\n" +
+            "    var created = 0;\n" +
+            "    if (!documents || documents.length === 0) {\n" +
+            "        response.setBody(0);\n" +
+            "        return;\n" +
+            "    }\n" +
+            "    createNext();\n" +
+            "    function createNext() {\n" +
+            "        var accepted = collection.createDocument(collection.getSelfLink(), documents[created], " +
+            "options,\n" +
+            "            function (error) {\n" +
+            "                if (error) {\n" +
+            "                    throw error;\n" +
+            "                }\n" +
+            "                created++;\n" +
+            "                if (created < documents.length) {\n" +
+            "                    createNext();\n" +
+            "                } else {\n" +
+            "                    response.setBody(created);\n" +
+            "                }\n" +
+            "            });\n" +
+            "        if (!accepted) {\n" +
+            "            response.setBody(created);\n" +
+            "        }\n" +
+            "    }\n" +
+            "}";
+    //Looks a document up by id through a query, as ids may hold characters which are decoded in name based links
+    private static final String READ_DOCUMENT_BY_ID_FUNCTION = "" +
+            "    function readDocumentById(id, callback) {\n" +
+            "        return collection.queryDocuments(collection.getSelfLink(),\n" +
+            "            {query: 'SELECT * FROM root r WHERE r.id = @id', parameters: [{name: '@id', value: id}]},\n" +
+            "            {}, function (error, documents) {\n" +
+            "                callback(error, documents && documents.length > 0 ? documents[0] : null);\n" +
+            "            });\n" +
+            "    }\n";
+    public static final String TRANSACTIONAL_BATCH_PROCEDURE_ID = "siddhiTransactionalBatch";
+    public static final String BATCH_OPERATION_TYPE = "type";
+    public static final String BATCH_OPERATION_ID = "id";
+    public static final String BATCH_OPERATION_SET = "set";
+    public static final String BATCH_OPERATION_DOCUMENT = "document";
+    public static final String BATCH_OPERATION_CREATE = "create";
+    public static final String BATCH_OPERATION_UPSERT = "upsert";
+    public static final String BATCH_OPERATION_UPDATE_OR_CREATE = "updateOrCreate";
+    public static final String TRANSACTIONAL_BATCH_PROCEDURE_BODY = "" +
+            "function transactionalBatch(operations, disableAutomaticIdGeneration) {\n" +
+            "    var collection = getContext().getCollection();\n" +
+            "    var response = getContext().getResponse();\n" +
+            "    var options = {disableAutomaticIdGeneration: disableAutomaticIdGeneration};\n" +
+            "    var applied = 0;\n" +
+            "    applyNext();\n" +
+            "    function applyNext() {\n" +
+            "        if (!operations || applied === operations.length) {\n" +
+            "            response.setBody(applied);\n" +
+            "            return;\n" +
+            "        }\n" +
+            "        var operation = operations[applied];\n" +
+            "        var accepted;\n" +
+            "        if (operation.type === 'create') {\n" +
+            "            accepted = collection.createDocument(collection.getSelfLink(), operation.document, " +
+            "options,\n" +
+            "                onApplied);\n" +
+            "        } else if (operation.type === 'upsert') {\n" +
+            "            accepted = collection.upsertDocument(collection.getSelfLink(), operation.document, " +
+            "options,\n" +
+            "                onApplied);\n" +
+            "        } else {\n" +
+            "            accepted = readDocumentById(operation.id, function (error, document) {\n" +
+            "                if (error) {\n" +
+            "                    throw error;\n" +
+            "                }\n" +
+            "                var writeAccepted;\n" +
+            "                if (!document) {\n" +
+            "                    writeAccepted = collection.createDocument(collection.getSelfLink(),\n" +
+            "                        operation.document, options, onApplied);\n" +
+            "                } else {\n" +
+            "                    for (var attribute in operation.set) {\n" +
+            "                        document[attribute] = operation.set[attribute];\n" +
+            "                    }\n" +
+            "                    writeAccepted = collection.replaceDocument(document._self, document, {}, " +
+            "onApplied);\n" +
+            "                }\n" +
+            "                if (!writeAccepted) {\n" +
+            "                    abort();\n" +
+            "                }\n" +
+            "            });\n" +
+            "        }\n" +
+            "        if (!accepted) {\n" +
+            "            abort();\n" +
+            "        }\n" +
+            "    }\n" +
+            "    function onApplied(error) {\n" +
+            "        if (error) {\n" +
+            "            throw error;\n" +
+            "        }\n" +
+            "        applied++;\n" +
+            "        applyNext();\n" +
+            "    }\n" +
+            "    function abort() {\n" +
+            "        throw new Error('Transactional batch was not accepted after ' + applied + ' of ' +\n" +
+            "            operations.length + ' operations. ');\n" +
+            "    }\n" +
+            READ_DOCUMENT_BY_ID_FUNCTION +
+            "}";
+
+    public static final String PATCH_PROCEDURE_ID = "siddhiPatch";
+    public static final String PATCH_PROCEDURE_BODY = "" +
+            "function patch(id, setValues) {\n" +
+            "    var collection = getContext().getCollection();\n" +
+            "    var response = getContext().getResponse();\n" +
+            "    var accepted = readDocumentById(id, function (error, document) {\n" +
+            "        if (error) {\n" +
+            "            throw error;\n" +
+            "        }\n" +
+            "        if (!document) {\n" +
+            "            response.setBody(0);\n" +
+            "            return;\n" +
+            "        }\n" +
+            "        for (var attribute in setValues) {\n" +
+            "            document[attribute] = setValues[attribute];\n" +
+            "        }\n" +
+            "        var replaceAccepted = collection.replaceDocument(document._self, document, {},\n" +
+            "            function (replaceError) {\n" +
+            "                if (replaceError) {\n" +
+            "                    throw replaceError;\n" +
+            "                }\n" +
+            "                response.setBody(1);\n" +
+            "            });\n" +
+            "        if (!replaceAccepted) {\n" +
+            "            throw new Error('Patch of document ' + id + ' was not accepted. ');\n" +
+            "        }\n" +
+            "    });\n" +
+            "    if (!accepted) {\n" +
+            "        throw new Error('Patch of document ' + id + ' was not accepted. ');\n" +
+            "    }\n" +
+            READ_DOCUMENT_BY_ID_FUNCTION +
+            "}";
+
+    public static final String UPDATE_BY_CONDITION_PROCEDURE_ID = "siddhiUpdateByCondition";
+    public static final String PROCEDURE_QUERY_TEXT = "query";
+    public static final String PROCEDURE_QUERY_PARAMETERS = "parameters";
+    public static final String PROCEDURE_QUERY_PARAMETER_NAME = "name";
+    public static final String PROCEDURE_QUERY_PARAMETER_VALUE = "value";
+    public static final String PROCEDURE_RESULT_COUNT = "count";
+    public static final String PROCEDURE_RESULT_DONE = "done";
+    public static final String UPDATE_BY_CONDITION_PROCEDURE_BODY = "" +
+            "function updateByCondition(query, setValues) {\n" +
+            "    var collection = getContext().getCollection();\n" +
+            "    var response = getContext().getResponse();\n" +
+            "    var updated = 0;\n" +
+            "    var replaced = {};\n" +
+            "    queryPage(undefined);\n" +
+            "    function queryPage(pageToken) {\n" +
+            "        var accepted = collection.queryDocuments(collection.getSelfLink(), query, " +
+            "{continuation: pageToken},\n" +
+            "            function (error, documents, options) {\n" +
+            "                if (error) {\n" +
+            "                    throw error;\n" +
+            "                }\n" +
+            "                var pending = documents.filter(function (document) {\n" +
+            "                    return !replaced[document.id];\n" +
+            "                });\n" +
+            "                if (pending.length > 0) {\n" +
+            "                    replaceNext(pending, 0);\n" +
+            "                } else if (options.continuation) {\n" +
+            "                    queryPage(options.continuation);\n" +
+            "                } else {\n" +
+            "                    response.setBody({count: updated, done: true});\n" +
+            "                }\n" +
+            "            });\n" +
+            "        if (!accepted) {\n" +
+            "            stop();\n" +
+            "        }\n" +
+            "    }\n" +
+            "    function replaceNext(documents, index) {\n" +
+            "        if (index === documents.length) {\n" +
+            "            queryPage(undefined);\n" +
+            "            return;\n" +
+            "        }\n" +
+            "        var document = documents[index];\n" +
+            "        for (var attribute in setValues) {\n" +
+            "            document[attribute] = setValues[attribute];\n" +
+            "        }\n" +
+            "        var accepted = collection.replaceDocument(document._self, document, {}, function (error) {\n" +
+            "            if (error) {\n" +
+            "                throw error;\n" +
+            "            }\n" +
+            "            replaced[document.id] = true;\n" +
+            "            updated++;\n" +
+            "            replaceNext(documents, index + 1);\n" +
+            "        });\n" +
+            "        if (!accepted) {\n" +
+            "            stop();\n" +
+            "        }\n" +
+            "    }\n" +
+            "    function stop() {\n" +
+            "        response.setBody({count: updated, done: false});\n" +
+            "    }\n" +
+            "}";
+
+    public static final String DELETE_BY_CONDITION_PROCEDURE_ID = "siddhiDeleteByCondition";
+    public static final String DELETE_BY_CONDITION_PROCEDURE_BODY = "" +
+            "function deleteByCondition(query) {\n" +
+            "    var collection = getContext().getCollection();\n" +
+            "    var response = getContext().getResponse();\n" +
+            "    var deleted = 0;\n" +
+            "    queryPage(undefined);\n" +
+            "    function queryPage(pageToken) {\n" +
+            "        var accepted = collection.queryDocuments(collection.getSelfLink(), query, " +
+            "{continuation: pageToken},\n" +
+            "            function (error, documents, options) {\n" +
+            "                if (error) {\n" +
+            "                    throw error;\n" +
+            "                }\n" +
+            "                if (documents.length > 0) {\n" +
+            "                    deleteNext(documents, 0);\n" +
+            "                } else if (options.continuation) {\n" +
+            "                    queryPage(options.continuation);\n" +
+            "                } else {\n" +
+            "                    response.setBody({count: deleted, done: true});\n" +
+            "                }\n" +
+            "            });\n" +
+            "        if (!accepted) {\n" +
+            "            stop();\n" +
+            "        }\n" +
+            "    }\n" +
+            "    function deleteNext(documents, index) {\n" +
+            "        if (index === documents.length) {\n" +
+            "            queryPage(undefined);\n" +
+            "            return;\n" +
+            "        }\n" +
+            "        var accepted = collection.deleteDocument(documents[index]._self, {}, function (error) {\n" +
+            "            if (error && error.number !== 404) {\n" +
+            "                throw error;\n" +
+            "            }\n" +
+            "            deleted++;\n" +
+            "            deleteNext(documents, index + 1);\n" +
+            "        });\n" +
+            "        if (!accepted) {\n" +
+            "            stop();\n" +
+            "        }\n" +
+            "    }\n" +
+            "    function stop() {\n" +
+            "        response.setBody({count: deleted, done: false});\n" +
+            "    }\n" +
+            "}";
+
     //Configurable System Parameters associated with Connection Policy
     public static final String CONNECTION_MODE = "connectionMode";
     public static final String DIRECT_REQUEST_TIMEOUT = "directRequestTimeout";
@@ -103,6 +432,11 @@ public class CosmosTableConstants {
 
     public static final String CONSISTENCY_LEVEL = "consistencyLevel";
 
+    //Configurable System Parameters associated with the client
+    public static final String CLIENT_TYPE = "clientType";
+    public static final String CLIENT_TYPE_DOCUMENT_DB = "DocumentDB";
+    public static final String CLIENT_TYPE_IN_MEMORY = "InMemory";
+
     private CosmosTableConstants() {
     }
 
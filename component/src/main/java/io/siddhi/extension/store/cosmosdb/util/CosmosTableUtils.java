@@ -23,30 +23,49 @@ import com.microsoft.azure.documentdb.AccessCondition;
 import com.microsoft.azure.documentdb.AccessConditionType;
 import com.microsoft.azure.documentdb.ConnectionMode;
 import com.microsoft.azure.documentdb.ConnectionPolicy;
+import com.microsoft.azure.documentdb.DocumentCollection;
 import com.microsoft.azure.documentdb.FeedOptions;
 import com.microsoft.azure.documentdb.IndexingDirective;
 import com.microsoft.azure.documentdb.MediaReadMode;
 import com.microsoft.azure.documentdb.PartitionKey;
+import com.microsoft.azure.documentdb.PartitionKeyDefinition;
 import com.microsoft.azure.documentdb.RequestOptions;
+import com.microsoft.azure.documentdb.SqlParameter;
+import com.microsoft.azure.documentdb.SqlParameterCollection;
+import com.microsoft.azure.documentdb.SqlQuerySpec;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.extension.store.cosmosdb.CosmosCompiledCondition;
+import io.siddhi.extension.store.cosmosdb.CosmosCompiledSelection;
 import io.siddhi.query.api.annotation.Annotation;
 import io.siddhi.query.api.definition.Attribute;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.SortedMap;
-
-import static io.siddhi.query.api.definition.Attribute.Type;
-import static io.siddhi.query.api.definition.Attribute.Type.STRING;
+import java.util.function.Consumer;
 
 /**
  * Class which holds the utility methods which are used by various units in the CosmosDB Event Table implementation.
  */
 public class CosmosTableUtils {
     private static final Log log = LogFactory.getLog(CosmosTableUtils.class);
+    private static final Set<String> SQL_RESERVED_WORDS = new HashSet<>(Arrays.asList("AND", "ARRAY", "AS", "ASC",
+            "BETWEEN", "BY", "CASE", "CAST", "CONVERT", "CROSS", "DESC", "DISTINCT", "ELSE", "END", "ESCAPE", "EXISTS",
+            "FALSE", "FOR", "FROM", "GROUP", "HAVING", "IN", "INNER", "INSERT", "INTO", "IS", "JOIN", "LEFT", "LIKE",
+            "LIMIT", "NOT", "NULL", "OFFSET", "ON", "OR", "ORDER", "OUTER", "OVER", "RIGHT", "SELECT", "SET", "THEN",
+            "TOP", "TRUE", "UDF", "UNDEFINED", "UPDATE", "VALUE", "WHEN", "WHERE", "WITH"));
 
     private CosmosTableUtils() {
         //Prevent Initialization.
@@ -63,47 +82,249 @@ public class CosmosTableUtils {
     }
 
     /**
-     * Util method used throughout the CosmosDB Event Table implementation which accepts a compiled condition (from
-     * compile-time) and uses values from the runtime to populate the given condition.
+     * Util method which builds a query on a compiled condition, binding the runtime value of each of its
+     * parameters to the name it has been given in the query text.
      *
-     * @param compiledCondition     the compiled condition which was built during compile time and now is being provided
-     *                              by the Siddhi runtime.
+     * @param queryText             the query text built on the compiled condition.
+     * @param compiledCondition     the compiled condition to be resolved.
      * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the parameterized query.
      */
-    public static String resolveCondition(CosmosCompiledCondition compiledCondition,
-                                          Map<String, Object> conditionParameterMap) {
+    public static SqlQuerySpec buildQuerySpec(String queryText, CosmosCompiledCondition compiledCondition,
+                                              Map<String, Object> conditionParameterMap) {
+        SqlParameterCollection sqlParameters = new SqlParameterCollection();
+        addSqlParameters(sqlParameters, CosmosTableConstants.SQL_PARAMETER_PREFIX, compiledCondition.getParameters(),
+                conditionParameterMap);
+        if (log.isDebugEnabled()) {
+            log.debug("Query for collection : " + queryText);
+        }
+        return new SqlQuerySpec(queryText, sqlParameters);
+    }
 
-        String condition = compiledCondition.getCompiledQuery();
+    /**
+     * Util method which builds a query applying a compiled selection on a compiled condition, binding the runtime
+     * values of the parameters of both to the names they have been given in the query text.
+     *
+     * @param compiledCondition the compiled condition to be resolved.
+     * @param compiledSelection the compiled selection to be applied.
+     * @param parameterMap      the map which contains the runtime value(s) for the condition and the selection.
+     * @return the parameterized query.
+     */
+    public static SqlQuerySpec buildQuerySpec(CosmosCompiledCondition compiledCondition,
+                                              CosmosCompiledSelection compiledSelection,
+                                              Map<String, Object> parameterMap) {
+        String queryText = compiledSelection.getQueryText(compiledCondition);
+        SqlParameterCollection sqlParameters = new SqlParameterCollection();
+        addSqlParameters(sqlParameters, CosmosTableConstants.SQL_PARAMETER_PREFIX, compiledCondition.getParameters(),
+                parameterMap);
+        for (Map.Entry<String, Object> entry : compiledSelection.getParameters().entrySet()) {
+            sqlParameters.add(new SqlParameter(entry.getKey(), resolveParameterValue(entry.getValue(), parameterMap)));
+        }
         if (log.isDebugEnabled()) {
-            log.debug("compiled condition for collection : " + condition);
+            log.debug("Query for collection : " + queryText);
+        }
+        return new SqlQuerySpec(queryText, sqlParameters);
+    }
+
+    /**
+     * Util method which converts a parameterized query to the form the queries of stored procedures take.
+     *
+     * @param query the parameterized query.
+     * @return the query text and the name and value of each of its parameters.
+     */
+    public static Map<String, Object> toProcedureQuery(SqlQuerySpec query) {
+        List<Map<String, Object>> parameters = new ArrayList<>();
+        for (SqlParameter parameter : query.getParameters()) {
+            Map<String, Object> procedureParameter = new HashMap<>();
+            procedureParameter.put(CosmosTableConstants.PROCEDURE_QUERY_PARAMETER_NAME, parameter.getName());
+            procedureParameter.put(CosmosTableConstants.PROCEDURE_QUERY_PARAMETER_VALUE,
+                    parameter.get(CosmosTableConstants.PROCEDURE_QUERY_PARAMETER_VALUE));
+            parameters.add(procedureParameter);
         }
-        SortedMap<Integer, Object> parameters = compiledCondition.getParameters();
+        Map<String, Object> procedureQuery = new HashMap<>();
+        procedureQuery.put(CosmosTableConstants.PROCEDURE_QUERY_TEXT, query.getQueryText());
+        procedureQuery.put(CosmosTableConstants.PROCEDURE_QUERY_PARAMETERS, parameters);
+        return procedureQuery;
+    }
+
+    private static void addSqlParameters(SqlParameterCollection sqlParameters, String prefix,
+                                         SortedMap<Integer, Object> parameters, Map<String, Object> parameterMap) {
         for (Map.Entry<Integer, Object> entry : parameters.entrySet()) {
-            if (entry.getValue() instanceof Constant) {
-                Constant value = (Constant) entry.getValue();
-                if (value.getType() == STRING) {
-                    condition = condition.replaceFirst(CosmosTableConstants.SQL_QUESTION_MARK,
-                            "'" + value.getValue().toString() + "'");
-                } else {
-                    condition = condition.replaceFirst(CosmosTableConstants.SQL_QUESTION_MARK,
-                            value.getValue().toString());
-                }
+            sqlParameters.add(new SqlParameter(prefix + entry.getKey(),
+                    resolveParameterValue(entry.getValue(), parameterMap)));
+        }
+    }
+
+    /**
+     * Util method which resolves the table attribute holding the partition key of the given collection. Only
+     * partition key paths which refer to a top level attribute of the table are considered.
+     *
+     * @param documentCollection the collection the table is persisted as.
+     * @param attributeNames     the attribute names of the table.
+     * @return the name of the partition key attribute, or null if the collection is not partitioned by one.
+     */
+    public static String getPartitionKeyAttribute(DocumentCollection documentCollection,
+                                                  List<String> attributeNames) {
+        PartitionKeyDefinition partitionKeyDefinition = documentCollection.getPartitionKey();
+        if (partitionKeyDefinition == null || partitionKeyDefinition.getPaths() == null) {
+            return null;
+        }
+        for (String path : partitionKeyDefinition.getPaths()) {
+            String attributeName = path.startsWith("/") ? path.substring(1) : path;
+            if (attributeNames.contains(attributeName)) {
+                return attributeName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Util method which checks whether the given collection is partitioned, in which case stored procedures have to
+     * be executed within a single partition.
+     *
+     * @param documentCollection the collection the table is persisted as.
+     * @return true if the collection has a partition key path.
+     */
+    public static boolean isPartitioned(DocumentCollection documentCollection) {
+        PartitionKeyDefinition partitionKeyDefinition = documentCollection.getPartitionKey();
+        return partitionKeyDefinition != null && partitionKeyDefinition.getPaths() != null &&
+                !partitionKeyDefinition.getPaths().isEmpty();
+    }
+
+    /**
+     * Util method which composes a deterministic document id from the primary key values of a record. Every character
+     * of a key value other than an ASCII letter, digit or '-' is escaped as '~' followed by the hex digits of each of
+     * its UTF-8 bytes, so that distinct key values always yield distinct ids, and the ids never need to be URL encoded
+     * in a document link.
+     *
+     * @param record              the record holding the primary key values.
+     * @param primaryKeyPositions the positions of the primary key attributes in the record.
+     * @return the document id of the record.
+     */
+    public static String composeDocumentId(Object[] record, int[] primaryKeyPositions) {
+        StringBuilder documentId = new StringBuilder();
+        for (int i = 0; i < primaryKeyPositions.length; i++) {
+            if (i > 0) {
+                documentId.append(CosmosTableConstants.DOCUMENT_ID_SEPARATOR);
+            }
+            appendEscapedKey(documentId, record[primaryKeyPositions[i]]);
+        }
+        return documentId.toString();
+    }
+
+    /**
+     * Util method which composes a deterministic document id from the given primary key values, in the same way as
+     * {@link #composeDocumentId(Object[], int[])}.
+     *
+     * @param primaryKeyValues the primary key values, in the order the primary keys are defined.
+     * @return the document id holding the given primary key values.
+     */
+    public static String composeDocumentId(List<Object> primaryKeyValues) {
+        StringBuilder documentId = new StringBuilder();
+        for (int i = 0; i < primaryKeyValues.size(); i++) {
+            if (i > 0) {
+                documentId.append(CosmosTableConstants.DOCUMENT_ID_SEPARATOR);
+            }
+            appendEscapedKey(documentId, primaryKeyValues.get(i));
+        }
+        return documentId.toString();
+    }
+
+    private static void appendEscapedKey(StringBuilder documentId, Object primaryKeyValue) {
+        for (byte character : String.valueOf(primaryKeyValue).getBytes(StandardCharsets.UTF_8)) {
+            if ((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') ||
+                    (character >= '0' && character <= '9') || character == '-') {
+                documentId.append((char) character);
             } else {
-                Attribute replacingAttribute = (Attribute) entry.getValue();
-                Type type = replacingAttribute.getType();
-                if (type == STRING) {
-                    condition = condition.replaceFirst(CosmosTableConstants.SQL_QUESTION_MARK,
-                            "'" + conditionParameterMap.get(replacingAttribute.getName()).toString() + "'");
-                } else {
-                    condition = condition.replaceFirst(CosmosTableConstants.SQL_QUESTION_MARK,
-                            String.valueOf(conditionParameterMap.get(replacingAttribute.getName())));
-                }
+                documentId.append(CosmosTableConstants.DOCUMENT_ID_ESCAPE)
+                        .append(String.format("%02X", character & 0xFF));
             }
         }
-        if (log.isDebugEnabled()) {
-            log.debug("Resolved condition for collection : " + condition);
+    }
+
+    /**
+     * Util method which checks whether a document id can be placed in a name based document link as it is, i.e.
+     * whether it only holds characters which are never URL encoded or decoded on the way to the service.
+     *
+     * @param documentId the document id to be checked.
+     * @return true if the document can be addressed by its name based link.
+     */
+    public static boolean isLinkSafe(String documentId) {
+        if (documentId.isEmpty() || documentId.equals(".") || documentId.equals("..")) {
+            return false;
+        }
+        for (int i = 0; i < documentId.length(); i++) {
+            char character = documentId.charAt(i);
+            if (!((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') ||
+                    (character >= '0' && character <= '9') || character == '-' || character == '.' ||
+                    character == '_' || character == '~')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Util method which builds the reference to a property of the documents of a collection. The property name is
+     * quoted, so that properties named after reserved words such as "value" or "order" can be referred to as well.
+     *
+     * @param collectionAlias the alias the collection is referred to by in the query.
+     * @param propertyName    the name of the property.
+     * @return the quoted property reference, e.g. {@code c["value"]}.
+     */
+    public static String toPropertyReference(String collectionAlias, String propertyName) {
+        return String.format(CosmosTableConstants.SQL_PROPERTY, collectionAlias,
+                propertyName.replace("\\", "\\\\").replace("\"", "\\\""));
+    }
+
+    /**
+     * Util method which checks whether a name can be used as an alias in a query as it is, i.e. whether it is an
+     * identifier which is not a reserved word of the Cosmos DB SQL dialect. Unlike property names, aliases cannot be
+     * quoted.
+     *
+     * @param name the name to be checked.
+     * @return true if the name can be used as an alias.
+     */
+    public static boolean isAlias(String name) {
+        if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!(Character.isLetterOrDigit(name.charAt(i)) || name.charAt(i) == '_')) {
+                return false;
+            }
         }
-        return condition;
+        return !SQL_RESERVED_WORDS.contains(name.toUpperCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Util method which resolves the runtime value of a stream variable or constant of a compiled condition.
+     *
+     * @param parameter             the stream variable ({@link Attribute}) or {@link Constant} to be resolved.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return the value of the parameter.
+     */
+    public static Object resolveParameterValue(Object parameter, Map<String, Object> conditionParameterMap) {
+        if (parameter instanceof Constant) {
+            return ((Constant) parameter).getValue();
+        }
+        return conditionParameterMap.get(((Attribute) parameter).getName());
+    }
+
+    /**
+     * Util method which checks whether two stream variables or constants of compiled expressions always resolve to the
+     * same value, i.e. whether they refer to the same stream variable or hold equal constant values.
+     *
+     * @param parameter      the first stream variable ({@link Attribute}) or {@link Constant}.
+     * @param otherParameter the second stream variable ({@link Attribute}) or {@link Constant}.
+     * @return true if both parameters resolve to the same value.
+     */
+    public static boolean isSameParameter(Object parameter, Object otherParameter) {
+        if (parameter instanceof Constant && otherParameter instanceof Constant) {
+            return Objects.equals(((Constant) parameter).getValue(), ((Constant) otherParameter).getValue());
+        }
+        return parameter instanceof Attribute && otherParameter instanceof Attribute &&
+                ((Attribute) parameter).getName().equals(((Attribute) otherParameter).getName());
     }
 
     public static ConnectionPolicy generateConnectionPolicy(ConfigReader configReader) {
@@ -155,89 +376,132 @@ public class CosmosTableUtils {
 
     public static RequestOptions getCustomRequestOptions(Annotation storeAnnotation) {
         RequestOptions requestOptions = new RequestOptions();
-        AccessCondition accessCondition = new AccessCondition();
-
-        requestOptions.setDisableRUPerMinuteUsage(Boolean.parseBoolean(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_RU_PER_MINUTE)));
-        requestOptions.setOfferEnableRUPerMinuteThroughput(Boolean.parseBoolean(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_RU_THROUGHPUT)));
-        requestOptions.setPartitionKey(isEmpty(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY)) ? null : new PartitionKey(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY)));
-        requestOptions.setOfferThroughput(isEmpty(storeAnnotation.getElement(
+        getRequestOptionsInitializer(storeAnnotation).accept(requestOptions);
+        return requestOptions;
+    }
+
+    /**
+     * Util method which parses the request options configured on the store annotation once, into an initializer
+     * which applies them to new request options without reading the annotation again.
+     *
+     * @param storeAnnotation the source annotation which contains the needed parameters.
+     * @return the initializer of request options holding the configured values.
+     */
+    public static Consumer<RequestOptions> getRequestOptionsInitializer(Annotation storeAnnotation) {
+        boolean disableRUPerMinuteUsage = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_RU_PER_MINUTE));
+        boolean offerEnableRUPerMinuteThroughput = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_RU_THROUGHPUT));
+        String partitionKey = storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY);
+        Integer offerThroughput = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_OFFER_THROUGHPUT)) ? null : Integer.valueOf(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_OFFER_THROUGHPUT)));
-        requestOptions.setOfferType(isEmpty(storeAnnotation.getElement(
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_OFFER_THROUGHPUT));
+        String offerType = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_OFFER_TYPE)) ? null : storeAnnotation.getElement(
-                        CosmosTableConstants.ANNOTATION_ELEMENT_OFFER_TYPE));
-        requestOptions.setResourceTokenExpirySeconds(isEmpty(storeAnnotation.getElement(
+                        CosmosTableConstants.ANNOTATION_ELEMENT_OFFER_TYPE);
+        Integer resourceTokenExpirySeconds = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_RESOURCE_TOKEN_EXPIRY)) ? null : Integer.valueOf(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_RESOURCE_TOKEN_EXPIRY)));
-        requestOptions.setSessionToken(isEmpty(storeAnnotation.getElement(
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_RESOURCE_TOKEN_EXPIRY));
+        String sessionToken = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_SESSION_TOKEN)) ? null : storeAnnotation.getElement(
-                        CosmosTableConstants.ANNOTATION_ELEMENT_SESSION_TOKEN));
-        requestOptions.setIndexingDirective(isEmpty(storeAnnotation.getElement(
+                        CosmosTableConstants.ANNOTATION_ELEMENT_SESSION_TOKEN);
+        IndexingDirective indexingDirective = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_INDEXING_DIRECTIVE)) ? null : IndexingDirective.valueOf(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_INDEXING_DIRECTIVE)));
-        accessCondition.setType(isEmpty(storeAnnotation.getElement(
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_INDEXING_DIRECTIVE));
+        AccessConditionType accessConditionType = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_CONDITION_TYPE)) ? null :
                 AccessConditionType.valueOf(storeAnnotation.getElement(
-                        CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_CONDITION_TYPE)));
-        accessCondition.setCondition(isEmpty(storeAnnotation.getElement(
+                        CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_CONDITION_TYPE));
+        String accessCondition = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_CONDITION)) ? null : storeAnnotation.getElement(
-                        CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_CONDITION));
-        requestOptions.setAccessCondition(accessCondition);
-        requestOptions.setPreTriggerInclude(isEmpty(storeAnnotation.getElement(
+                        CosmosTableConstants.ANNOTATION_ELEMENT_ACCESS_CONDITION);
+        List<String> preTriggerInclude = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_PRE_TRIGGER_INCLUDE)) ? null : Collections.singletonList(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_PRE_TRIGGER_INCLUDE)));
-        requestOptions.setPostTriggerInclude(isEmpty(storeAnnotation.getElement(
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_PRE_TRIGGER_INCLUDE));
+        List<String> postTriggerInclude = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_POST_TRIGGER_INCLUDE)) ? null : Collections.singletonList(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_POST_TRIGGER_INCLUDE)));
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_POST_TRIGGER_INCLUDE));
+        Map<String, String> customRequestOptions = new LinkedHashMap<>();
         String customOptions = storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_CUSTOM_REQUEST_OPTIONS);
         if (customOptions != null) {
             String[] customOption = customOptions.split(",");
             for (int counter = 0; counter < customOption.length; counter++) {
                 String[] option = customOption[counter].split(":");
-                String key = option[0];
-                String value = option[1];
-                requestOptions.setCustomRequestOption(key, value);
+                customRequestOptions.put(option[0], option[1]);
             }
         }
-        return requestOptions;
+        return requestOptions -> {
+            requestOptions.setDisableRUPerMinuteUsage(disableRUPerMinuteUsage);
+            requestOptions.setOfferEnableRUPerMinuteThroughput(offerEnableRUPerMinuteThroughput);
+            requestOptions.setPartitionKey(isEmpty(partitionKey) ? null : new PartitionKey(partitionKey));
+            requestOptions.setOfferThroughput(offerThroughput);
+            requestOptions.setOfferType(offerType);
+            requestOptions.setResourceTokenExpirySeconds(resourceTokenExpirySeconds);
+            requestOptions.setSessionToken(sessionToken);
+            requestOptions.setIndexingDirective(indexingDirective);
+            AccessCondition condition = new AccessCondition();
+            condition.setType(accessConditionType);
+            condition.setCondition(accessCondition);
+            requestOptions.setAccessCondition(condition);
+            requestOptions.setPreTriggerInclude(preTriggerInclude);
+            requestOptions.setPostTriggerInclude(postTriggerInclude);
+            for (Map.Entry<String, String> customRequestOption : customRequestOptions.entrySet()) {
+                requestOptions.setCustomRequestOption(customRequestOption.getKey(), customRequestOption.getValue());
+            }
+        };
     }
 
     public static FeedOptions getFeedOptions(Annotation storeAnnotation) {
         FeedOptions feedOptions = new FeedOptions();
+        getFeedOptionsInitializer(storeAnnotation).accept(feedOptions);
+        return feedOptions;
+    }
 
-        feedOptions.setPartitionKeyRangeIdInternal(isEmpty(storeAnnotation.getElement(
+    /**
+     * Util method which parses the feed options configured on the store annotation once, into an initializer
+     * which applies them to new feed options without reading the annotation again.
+     *
+     * @param storeAnnotation the source annotation which contains the needed parameters.
+     * @return the initializer of feed options holding the configured values.
+     */
+    public static Consumer<FeedOptions> getFeedOptionsInitializer(Annotation storeAnnotation) {
+        String partitionKeyRangeId = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY_RANGE_ID)) ? null : storeAnnotation.getElement(
-                        CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY_RANGE_ID));
-        feedOptions.setSessionToken(isEmpty(storeAnnotation.getElement(
+                        CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY_RANGE_ID);
+        String sessionToken = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_SESSION_TOKEN)) ? null : storeAnnotation.getElement(
-                        CosmosTableConstants.ANNOTATION_ELEMENT_SESSION_TOKEN));
-        feedOptions.setEnableScanInQuery(isEmpty(storeAnnotation.getElement(
+                        CosmosTableConstants.ANNOTATION_ELEMENT_SESSION_TOKEN);
+        boolean enableScanInQuery = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_SCAN_IN_QUERY)) || Boolean.parseBoolean(
-                storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_SCAN_IN_QUERY)));
-        feedOptions.setEmitVerboseTracesInQuery(Boolean.valueOf(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_EMIT_VERBOSE_TRACES_IN_QUERY)));
-        feedOptions.setPartitionKey(isEmpty(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY)) ? null : PartitionKey.FromJsonString(
-                storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY)));
-        feedOptions.setEnableCrossPartitionQuery(Boolean.valueOf(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_CROSS_PARTITION_QUERY)));
-        feedOptions.setMaxDegreeOfParallelism(isEmpty(storeAnnotation.getElement(
+                storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_SCAN_IN_QUERY));
+        boolean emitVerboseTracesInQuery = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_EMIT_VERBOSE_TRACES_IN_QUERY));
+        String partitionKey = storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_PARTITION_KEY);
+        boolean enableCrossPartitionQuery = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_ENABLE_CROSS_PARTITION_QUERY));
+        int maxDegreeOfParallelism = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_MAX_DEGREE_OF_PARALLELISM)) ? 0 : Integer.parseInt(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_MAX_DEGREE_OF_PARALLELISM)));
-        feedOptions.setMaxBufferedItemCount(isEmpty(storeAnnotation.getElement(
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_MAX_DEGREE_OF_PARALLELISM));
+        int maxBufferedItemCount = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_MAX_BUFFERED_ITEM_COUNT)) ? 0 : Integer.parseInt(
-                storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_MAX_BUFFERED_ITEM_COUNT)));
-        feedOptions.setDisableRUPerMinuteUsage(Boolean.parseBoolean(storeAnnotation.getElement(
-                CosmosTableConstants.ANNOTATION_ELEMENT_RU_PER_MINUTE)));
-        feedOptions.setResponseContinuationTokenLimitInKb(isEmpty(storeAnnotation.getElement(
+                storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_MAX_BUFFERED_ITEM_COUNT));
+        boolean disableRUPerMinuteUsage = Boolean.parseBoolean(storeAnnotation.getElement(
+                CosmosTableConstants.ANNOTATION_ELEMENT_RU_PER_MINUTE));
+        int responseContinuationTokenLimitInKb = isEmpty(storeAnnotation.getElement(
                 CosmosTableConstants.ANNOTATION_ELEMENT_RESPONSE_TOKEN_LIMIT)) ? 0 : Integer.parseInt(
-                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_RESPONSE_TOKEN_LIMIT)));
-
-        return feedOptions;
+                        storeAnnotation.getElement(CosmosTableConstants.ANNOTATION_ELEMENT_RESPONSE_TOKEN_LIMIT));
+        return feedOptions -> {
+            feedOptions.setPartitionKeyRangeIdInternal(partitionKeyRangeId);
+            feedOptions.setSessionToken(sessionToken);
+            feedOptions.setEnableScanInQuery(enableScanInQuery);
+            feedOptions.setEmitVerboseTracesInQuery(emitVerboseTracesInQuery);
+            feedOptions.setPartitionKey(isEmpty(partitionKey) ? null : PartitionKey.FromJsonString(partitionKey));
+            feedOptions.setEnableCrossPartitionQuery(enableCrossPartitionQuery);
+            feedOptions.setMaxDegreeOfParallelism(maxDegreeOfParallelism);
+            feedOptions.setMaxBufferedItemCount(maxBufferedItemCount);
+            feedOptions.setDisableRUPerMinuteUsage(disableRUPerMinuteUsage);
+            feedOptions.setResponseContinuationTokenLimitInKb(responseContinuationTokenLimitInKb);
+        };
     }
 }
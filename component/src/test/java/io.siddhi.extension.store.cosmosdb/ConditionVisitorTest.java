@@ -614,4 +614,48 @@ public class ConditionVisitorTest {
         siddhiAppRuntime.start();
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void conditionBuilderTest18() throws InterruptedException {
+        log.info("conditionBuilderTest18 - Test delete on condition which repeats attributes and mixes constant " +
+                "and variable operands. ");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on (FooTable.symbol == symbol or FooTable.symbol == 'IBM') and FooTable.price > 50 " +
+                "   and FooTable.price < price;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"WSO2", 57.6F, 100L});
+        stockStream.send(new Object[]{"ORCL", 52.0F, 100L});
+        stockStream.send(new Object[]{"ORCL", 45.0F, 100L});
+        deleteStockStream.send(new Object[]{"WSO2", 60.0F, 100L});
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Deletion bound the parameters of the first event " +
+                "incorrectly");
+        deleteStockStream.send(new Object[]{"ORCL", 53.0F, 100L});
+        siddhiAppRuntime.shutdown();
+        totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable", collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Deletion bound the parameters of the second event " +
+                "incorrectly");
+    }
 }
@@ -236,4 +236,65 @@ public class ContainsCosmosTableTest {
         siddhiAppRuntime.shutdown();
         Assert.assertEquals(eventCount.intValue(), 2, "Number of success events");
     }
+
+    @Test
+    public void containsCosmosTableTest4() throws InterruptedException {
+        log.info("containsCosmosTableTest4 - " +
+                "Configure siddhi to check whether records exist by primary keys holding reserved characters");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@source(type='inMemory') " +
+                "define stream FooStream (symbol string, price float, volume long);" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.primary.key.id='true')" +
+                "@PrimaryKey('symbol', 'volume')" +
+                "define table FooTable (symbol string, price float, volume long);" +
+                "@source(type='inMemory')" +
+                "define stream OutputStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream   " +
+                "insert into FooTable ;" +
+                "@info(name='query2')" +
+                "from FooStream " +
+                "[(FooTable.symbol == symbol and FooTable.volume == volume) in FooTable]" +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                if (events != null) {
+                    for (Event event : events) {
+                        eventCount.incrementAndGet();
+                        switch (eventCount.intValue()) {
+                            case 1:
+                                Assert.assertEquals(new Object[]{"WSO2/NYSE", 50.56, 100}, event.getData());
+                                break;
+                            case 2:
+                                Assert.assertEquals(new Object[]{"WSO2%2FNYSE", 70.56, 100}, event.getData());
+                                break;
+                            default:
+                                Assert.assertEquals(new Object[]{}, event.getData());
+                                break;
+                        }
+                    }
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2/NYSE", 50.56F, 100L});
+        stockStream.send(new Object[]{"WSO2%2FNYSE", 70.56F, 100L});
+        stockStream.send(new Object[]{"WSO2_NYSE", 57.6F, 100L});
+        fooStream.send(new Object[]{"WSO2/NYSE", 50.56, 100});
+        fooStream.send(new Object[]{"WSO2%2FNYSE", 70.56, 100});
+        fooStream.send(new Object[]{"WSO2_NYSE", 57.6, 200});
+        SiddhiTestHelper.waitForEvents(waitTime, 2, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 2, "Number of success events");
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.DocumentClientException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CosmosDocumentExecutorTest {
+
+    private static final Log log = LogFactory.getLog(CosmosDocumentExecutorTest.class);
+
+    @BeforeClass
+    public void init() {
+        log.info("== Cosmos document executor tests started ==");
+    }
+
+    @AfterClass
+    public void shutdown() {
+        log.info("== Cosmos document executor tests completed ==");
+    }
+
+    @Test
+    public void cosmosDocumentExecutorTest1() throws DocumentClientException {
+        log.info("cosmosDocumentExecutorTest1 - Test operating on documents within the concurrency limit");
+        CosmosDocumentExecutor documentExecutor = new CosmosDocumentExecutor("FooTable", 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        try {
+            documentExecutor.execute(documents(12), document -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(30);
+                inFlight.decrementAndGet();
+                completed.incrementAndGet();
+            });
+        } finally {
+            documentExecutor.stop();
+        }
+        Assert.assertEquals(completed.get(), 12, "Number of completed operations");
+        Assert.assertTrue(maxInFlight.get() <= 3, "Operations in flight exceeded the concurrency: " +
+                maxInFlight.get());
+        Assert.assertTrue(maxInFlight.get() > 1, "Operations were not run concurrently");
+    }
+
+    @Test
+    public void cosmosDocumentExecutorTest2() throws InterruptedException {
+        log.info("cosmosDocumentExecutorTest2 - Test failing on the first failed document and skipping the " +
+                "pending ones");
+        CosmosDocumentExecutor documentExecutor = new CosmosDocumentExecutor("FooTable", 2);
+        AtomicInteger started = new AtomicInteger();
+        try {
+            documentExecutor.execute(documents(20), document -> {
+                started.incrementAndGet();
+                if (document == 0) {
+                    throw new DocumentClientException(409);
+                } else if (document == 1) {
+                    sleep(100);
+                    throw new DocumentClientException(412);
+                }
+                sleep(50);
+            });
+            Assert.fail("Failed operation was not rethrown");
+        } catch (DocumentClientException e) {
+            Assert.assertEquals(e.getStatusCode(), 409, "Status code of the rethrown failure");
+        } finally {
+            documentExecutor.stop();
+        }
+        //Waits for the operations already in flight, as the pending ones should never start.
+        TimeUnit.MILLISECONDS.sleep(300);
+        Assert.assertTrue(started.get() <= 4, "Pending operations were started after the failure: " +
+                started.get());
+    }
+
+    private static List<Integer> documents(int count) {
+        List<Integer> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(i);
+        }
+        return documents;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.Error;
+import io.siddhi.extension.store.cosmosdb.client.CosmosQuery;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CosmosRateLimiterTest {
+
+    private static final Log log = LogFactory.getLog(CosmosRateLimiterTest.class);
+    private static final String REQUEST_CHARGE_HEADER = "x-ms-request-charge";
+
+    @BeforeClass
+    public void init() {
+        log.info("== Cosmos rate limiter tests started ==");
+    }
+
+    @AfterClass
+    public void shutdown() {
+        log.info("== Cosmos rate limiter tests completed ==");
+    }
+
+    @Test
+    public void cosmosRateLimiterTest1() throws DocumentClientException {
+        log.info("cosmosRateLimiterTest1 - Test pacing requests once the budget is spent");
+        CosmosRateLimiter rateLimiter = new CosmosRateLimiter("FooTable", 10);
+        long start = System.nanoTime();
+        //Reserves the initial estimate of 1 and settles the reported charge of 5, leaving 5 request units.
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_CREATE, 5);
+        //Reserves the learnt estimate of 5, spending the rest of the budget.
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_CREATE, 5);
+        long withinBudgetMillis = elapsedMillis(start);
+        start = System.nanoTime();
+        //Overdraws the budget by 5 request units, which takes half a second to refill.
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_CREATE, 5);
+        long overBudgetMillis = elapsedMillis(start);
+        Assert.assertTrue(withinBudgetMillis < 250, "Requests within the budget were delayed by " +
+                withinBudgetMillis + " ms");
+        Assert.assertTrue(overBudgetMillis >= 400, "Request over the budget was delayed by only " +
+                overBudgetMillis + " ms");
+    }
+
+    @Test
+    public void cosmosRateLimiterTest2() throws DocumentClientException {
+        log.info("cosmosRateLimiterTest2 - Test the estimated charge of each type of operation");
+        CosmosRateLimiter rateLimiter = new CosmosRateLimiter("FooTable", 1000000);
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_QUERY), 1.0, 1e-9,
+                "Initial estimate");
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_QUERY, 10);
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_QUERY), 10.0, 1e-9,
+                "Estimate after the first charge");
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_QUERY, 20);
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_QUERY), 12.0, 1e-9,
+                "Smoothed estimate after the second charge");
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_QUERY, 2);
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_QUERY), 10.0, 1e-9,
+                "Smoothed estimate after the third charge");
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_READ), 1.0, 1e-9,
+                "Estimate of another type of operation");
+    }
+
+    @Test
+    public void cosmosRateLimiterTest3() {
+        log.info("cosmosRateLimiterTest3 - Test that failed requests do not update the estimated charge");
+        CosmosRateLimiter rateLimiter = new CosmosRateLimiter("FooTable", 1000000);
+        try {
+            rateLimiter.execute(CosmosRateLimiter.OPERATION_DELETE, () -> {
+                throw new DocumentClientException(404, new Error(), Collections.singletonMap(
+                        REQUEST_CHARGE_HEADER, "50"));
+            }, response -> 0);
+            Assert.fail("Failed request was not rethrown");
+        } catch (DocumentClientException e) {
+            Assert.assertEquals(e.getStatusCode(), 404);
+        }
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_DELETE), 1.0, 1e-9,
+                "Estimate after a failed request");
+    }
+
+    @Test
+    public void cosmosRateLimiterTest4() throws DocumentClientException {
+        log.info("cosmosRateLimiterTest4 - Test settling a charge above the estimate");
+        CosmosRateLimiter rateLimiter = new CosmosRateLimiter("FooTable", 10);
+        //Reserves the initial estimate of 1 while the reported charge of 10 spends the whole budget.
+        executeWithCharge(rateLimiter, CosmosRateLimiter.OPERATION_PROCEDURE, 10);
+        long start = System.nanoTime();
+        rateLimiter.reserve(CosmosRateLimiter.OPERATION_READ);
+        long delayMillis = elapsedMillis(start);
+        Assert.assertTrue(delayMillis >= 80, "Request after an underestimated charge was delayed by only " +
+                delayMillis + " ms");
+    }
+
+    @Test
+    public void cosmosRateLimiterTest5() {
+        log.info("cosmosRateLimiterTest5 - Test settling the charge of a failed request");
+        CosmosRateLimiter rateLimiter = new CosmosRateLimiter("FooTable", 10);
+        try {
+            rateLimiter.execute(CosmosRateLimiter.OPERATION_REPLACE, () -> {
+                throw new DocumentClientException(412, new Error(), Collections.singletonMap(
+                        REQUEST_CHARGE_HEADER, "10"));
+            }, response -> 0);
+            Assert.fail("Failed request was not rethrown");
+        } catch (DocumentClientException e) {
+            Assert.assertEquals(e.getStatusCode(), 412);
+        }
+        long start = System.nanoTime();
+        rateLimiter.reserve(CosmosRateLimiter.OPERATION_READ);
+        long delayMillis = elapsedMillis(start);
+        Assert.assertTrue(delayMillis >= 80, "Request after a charged failure was delayed by only " +
+                delayMillis + " ms");
+    }
+
+    @Test
+    public void cosmosRateLimiterTest6() throws DocumentClientException {
+        log.info("cosmosRateLimiterTest6 - Test settling the charge of each page of a metered query");
+        CosmosRateLimiter rateLimiter = new CosmosRateLimiter("FooTable", 1000000);
+        double[] charges = {10, 20};
+        AtomicInteger fetched = new AtomicInteger();
+        CosmosQuery pages = rateLimiter.meter(CosmosRateLimiter.OPERATION_QUERY, new CosmosQuery() {
+            @Override
+            public List<Document> fetchNextPage() {
+                return fetched.incrementAndGet() <= charges.length ?
+                        Collections.singletonList(new Document()) : null;
+            }
+
+            @Override
+            public double getRequestCharge() {
+                return charges[Math.min(fetched.get(), charges.length) - 1];
+            }
+        });
+        pages.fetchNextPage();
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_QUERY), 10.0, 1e-9,
+                "Estimate after the first page");
+        pages.fetchNextPage();
+        Assert.assertEquals(rateLimiter.reserve(CosmosRateLimiter.OPERATION_QUERY), 12.0, 1e-9,
+                "Smoothed estimate after the second page");
+        Assert.assertNull(pages.fetchNextPage(), "Pages after the last one");
+    }
+
+    private static void executeWithCharge(CosmosRateLimiter rateLimiter, String operation, double charge)
+            throws DocumentClientException {
+        double reportedCharge = rateLimiter.execute(operation, () -> charge, Double::doubleValue);
+        Assert.assertEquals(reportedCharge, charge, 1e-9);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.Error;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CosmosRetrySchedulerTest {
+
+    private static final Log log = LogFactory.getLog(CosmosRetrySchedulerTest.class);
+    private static final String RETRY_AFTER_HEADER = "x-ms-retry-after-ms";
+
+    @BeforeClass
+    public void init() {
+        log.info("== Cosmos retry scheduler tests started ==");
+    }
+
+    @AfterClass
+    public void shutdown() {
+        log.info("== Cosmos retry scheduler tests completed ==");
+    }
+
+    @Test
+    public void cosmosRetrySchedulerTest1() throws DocumentClientException {
+        log.info("cosmosRetrySchedulerTest1 - Test retrying a throttled request on the calling thread");
+        CosmosRetryScheduler retryScheduler = new CosmosRetryScheduler("FooTable", 9, 30, 1);
+        AtomicInteger attempts = new AtomicInteger();
+        String response = retryScheduler.await(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw throttling(10);
+            }
+            return "done";
+        });
+        retryScheduler.stop();
+        Assert.assertEquals(response, "done");
+        Assert.assertEquals(attempts.get(), 3, "Number of attempts");
+    }
+
+    @Test
+    public void cosmosRetrySchedulerTest2() {
+        log.info("cosmosRetrySchedulerTest2 - Test giving up a request once the retry wait time is spent");
+        CosmosRetryScheduler retryScheduler = new CosmosRetryScheduler("FooTable", 9, 1, 1);
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            retryScheduler.await(() -> {
+                attempts.incrementAndGet();
+                throw throttling(400);
+            });
+            Assert.fail("Throttled request was not given up");
+        } catch (DocumentClientException e) {
+            Assert.assertEquals(e.getStatusCode(), 429);
+        } finally {
+            retryScheduler.stop();
+        }
+        //The third retry would have waited for 1200 ms in total, which exceeds the allowed second.
+        Assert.assertEquals(attempts.get(), 3, "Number of attempts");
+    }
+
+    @Test
+    public void cosmosRetrySchedulerTest3() {
+        log.info("cosmosRetrySchedulerTest3 - Test giving up a parked write once the retry wait time is spent");
+        CosmosRetryScheduler retryScheduler = new CosmosRetryScheduler("FooTable", 9, 1, 2);
+        AtomicInteger throttledAttempts = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+        try {
+            retryScheduler.run(Arrays.asList(() -> {
+                throttledAttempts.incrementAndGet();
+                throw new SiddhiAppRuntimeException("Throttled", throttling(400));
+            }, writes::incrementAndGet));
+            Assert.fail("Throttled write was not given up");
+        } catch (SiddhiAppRuntimeException e) {
+            Assert.assertEquals(((DocumentClientException) e.getCause()).getStatusCode(), 429);
+        } finally {
+            retryScheduler.stop();
+        }
+        Assert.assertEquals(throttledAttempts.get(), 3, "Number of attempts of the throttled write");
+        Assert.assertEquals(writes.get(), 1, "Number of attempts of the other write");
+    }
+
+    private static DocumentClientException throttling(long retryAfterMillis) {
+        return new DocumentClientException(429, new Error(), Collections.singletonMap(RETRY_AFTER_HEADER,
+                String.valueOf(retryAfterMillis)));
+    }
+}
@@ -200,4 +200,63 @@ public class DefineCosmosTableTest {
         siddhiAppRuntime.start();
         siddhiAppRuntime.shutdown();
     }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void cosmosTableDefinitionTest11() {
+        log.info("cosmosTableDefinitionTest11 - " +
+                "Defining a CosmosDB table with a primary key which is not an attribute of the table");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "')" +
+                "@PrimaryKey('company')" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void cosmosTableDefinitionTest12() {
+        log.info("cosmosTableDefinitionTest12 - " +
+                "Defining a CosmosDB table with a partition key attribute which is not one of its primary keys");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='price', " +
+                "is.enable.primary.key.id='true')" +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void cosmosTableDefinitionTest13() {
+        log.info("cosmosTableDefinitionTest13 - " +
+                "Defining a CosmosDB table with a query page size of zero");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', query.page.size='0')" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void cosmosTableDefinitionTest14() {
+        log.info("cosmosTableDefinitionTest14 - " +
+                "Defining a CosmosDB table with an asynchronous write queue size of zero");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.async.write='true', async.write.queue.size='0')" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
 }
@@ -197,4 +197,115 @@ public class DeleteFromCosmosTableTest {
                 collectionLink);
         Assert.assertEquals(totalDocumentsInCollection, 3, "Deletion failed");
     }
+
+    @Test
+    public void deleteFromCosmosTableTest6() throws InterruptedException {
+        log.info("deleteFromCosmosTableTest6 - " +
+                "Delete events from a CosmosDB table by the complete primary key");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.primary.key.id='true')" +
+                "@PrimaryKey('symbol', 'volume')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on (FooTable.symbol == symbol and FooTable.volume == volume) ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"WSO2", 57.6F, 200L});
+        deleteStockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        deleteStockStream.send(new Object[]{"IBM", 75.6F, 200L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Deletion failed");
+    }
+
+    @Test
+    public void deleteFromCosmosTableTest7() throws InterruptedException {
+        log.info("deleteFromCosmosTableTest7 - Delete events of different partitions of a CosmosDB table through " +
+                "the delete by condition stored procedure");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='symbol', " +
+                "is.enable.bulk.delete='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.volume < volume ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 76.6F, 150L});
+        stockStream.send(new Object[]{"MSFT", 57.6F, 300L});
+        deleteStockStream.send(new Object[]{200L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 1, "Bulk deletion failed");
+    }
+
+    @Test
+    public void deleteFromCosmosTableTest8() throws InterruptedException {
+        log.info("deleteFromCosmosTableTest8 - Delete events of a CosmosDB table matching a condition concurrently");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', document.operation.concurrency='4')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.volume < volume ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 10; i++) {
+            stockStream.send(new Object[]{"WSO2_" + i, 55.6F, i * 100L});
+        }
+        deleteStockStream.send(new Object[]{800L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Concurrent deletion failed");
+    }
 }
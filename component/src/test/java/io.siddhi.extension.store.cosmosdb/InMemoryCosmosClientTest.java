@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.Document;
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.DocumentCollection;
+import com.microsoft.azure.documentdb.SqlParameter;
+import com.microsoft.azure.documentdb.SqlParameterCollection;
+import com.microsoft.azure.documentdb.SqlQuerySpec;
+import io.siddhi.extension.store.cosmosdb.client.CosmosQuery;
+import io.siddhi.extension.store.cosmosdb.client.InMemoryCosmosClient;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryCosmosClientTest {
+
+    private static final Log log = LogFactory.getLog(InMemoryCosmosClientTest.class);
+    private static final String DATABASE_LINK = "dbs/testDb";
+    private static final String COLLECTION_LINK = DATABASE_LINK + "/colls/FooTable";
+
+    private InMemoryCosmosClient client;
+
+    @BeforeClass
+    public void init() throws DocumentClientException {
+        log.info("== In-memory Cosmos client tests started ==");
+        client = new InMemoryCosmosClient("mem://InMemoryCosmosClientTest");
+        client.createDatabase("testDb");
+        DocumentCollection collection = new DocumentCollection();
+        collection.setId("FooTable");
+        client.createCollection(DATABASE_LINK, collection, null);
+        String[] symbols = {"WSO2", "IBM", "WSO2", "MSFT"};
+        double[] prices = {55.6, 75.6, 57.6, 57.6};
+        for (int i = 0; i < symbols.length; i++) {
+            Document document = new Document();
+            document.setId("doc" + i);
+            document.set("symbol", symbols[i]);
+            document.set("price", prices[i]);
+            document.set("volume", (long) (i + 1) * 100);
+            client.createDocument(COLLECTION_LINK, document, null, true);
+        }
+    }
+
+    @AfterClass
+    public void shutdown() {
+        client.close();
+        log.info("== In-memory Cosmos client tests completed ==");
+    }
+
+    @Test
+    public void inMemoryCosmosClientTest1() throws DocumentClientException {
+        log.info("inMemoryCosmosClientTest1 - Test filtered and ordered query");
+        SqlParameterCollection parameters = new SqlParameterCollection();
+        parameters.add(new SqlParameter("@price", 56));
+        List<Document> documents = fetchAll(new SqlQuerySpec("SELECT * FROM FooTable WHERE " +
+                "FooTable.price > @price ORDER BY FooTable.volume DESC", parameters));
+        Assert.assertEquals(documents.size(), 3, "Number of documents");
+        Assert.assertEquals(documents.get(0).getString("symbol"), "MSFT");
+        Assert.assertEquals(documents.get(2).getString("symbol"), "IBM");
+    }
+
+    @Test
+    public void inMemoryCosmosClientTest2() throws DocumentClientException {
+        log.info("inMemoryCosmosClientTest2 - Test grouped aggregation");
+        List<Document> documents = fetchAll(new SqlQuerySpec("SELECT FooTable.symbol, COUNT(1) AS total " +
+                "FROM FooTable GROUP BY FooTable.symbol"));
+        Assert.assertEquals(documents.size(), 3, "Number of groups");
+        for (Document document : documents) {
+            long expected = "WSO2".equals(document.getString("symbol")) ? 2 : 1;
+            Assert.assertEquals(document.getLong("total").longValue(), expected);
+        }
+    }
+
+    @Test
+    public void inMemoryCosmosClientTest3() throws DocumentClientException {
+        log.info("inMemoryCosmosClientTest3 - Test reading and deleting a document by its link");
+        Document document = new Document();
+        document.setId("transient");
+        document.set("symbol", "ORCL");
+        client.createDocument(COLLECTION_LINK, document, null, true);
+        String documentLink = COLLECTION_LINK + "/docs/transient";
+        Assert.assertEquals(client.readDocument(documentLink, null).getResource().getString("symbol"), "ORCL");
+        client.deleteDocument(documentLink, null);
+        try {
+            client.readDocument(documentLink, null);
+            Assert.fail("Deleted document was read");
+        } catch (DocumentClientException e) {
+            Assert.assertEquals(e.getStatusCode(), 404);
+        }
+    }
+
+    @Test(expectedExceptions = DocumentClientException.class)
+    public void inMemoryCosmosClientTest4() throws DocumentClientException {
+        log.info("inMemoryCosmosClientTest4 - Test creating a document with an existing id");
+        Document document = new Document();
+        document.setId("doc0");
+        client.createDocument(COLLECTION_LINK, document, null, true);
+    }
+
+    @Test
+    public void inMemoryCosmosClientTest5() throws DocumentClientException {
+        log.info("inMemoryCosmosClientTest5 - Test quoted property names, including reserved words");
+        Document document = new Document();
+        document.setId("reserved");
+        document.set("symbol", "ORCL");
+        document.set("value", 42L);
+        client.createDocument(COLLECTION_LINK, document, null, true);
+        List<Document> documents = fetchAll(new SqlQuerySpec("SELECT FooTable[\"symbol\"], FooTable[\"value\"] " +
+                "FROM FooTable WHERE FooTable[\"value\"] = 42"));
+        client.deleteDocument(COLLECTION_LINK + "/docs/reserved", null);
+        Assert.assertEquals(documents.size(), 1, "Number of documents");
+        Assert.assertEquals(documents.get(0).getString("symbol"), "ORCL");
+        Assert.assertEquals(documents.get(0).getLong("value").longValue(), 42L);
+    }
+
+    @Test
+    public void inMemoryCosmosClientTest6() throws DocumentClientException {
+        log.info("inMemoryCosmosClientTest6 - Test selecting distinct values");
+        List<Document> documents = fetchAll(new SqlQuerySpec("SELECT DISTINCT FooTable[\"symbol\"] " +
+                "FROM FooTable WHERE FooTable.price > 50"));
+        Assert.assertEquals(documents.size(), 3, "Number of distinct symbols");
+        Assert.assertEquals(documents.get(0).getString("symbol"), "WSO2");
+        Assert.assertEquals(documents.get(1).getString("symbol"), "IBM");
+        Assert.assertEquals(documents.get(2).getString("symbol"), "MSFT");
+    }
+
+    private List<Document> fetchAll(SqlQuerySpec querySpec) throws DocumentClientException {
+        CosmosQuery query = client.queryDocuments(COLLECTION_LINK, querySpec, null);
+        List<Document> documents = new ArrayList<>();
+        for (List<Document> page = query.fetchNextPage(); page != null; page = query.fetchNextPage()) {
+            documents.addAll(page);
+        }
+        return documents;
+    }
+}
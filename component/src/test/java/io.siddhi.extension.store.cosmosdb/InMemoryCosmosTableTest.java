@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.siddhi.extension.store.cosmosdb;
+
+import com.microsoft.azure.documentdb.DocumentClientException;
+import com.microsoft.azure.documentdb.DocumentCollection;
+import com.microsoft.azure.documentdb.PartitionKeyDefinition;
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.QueryableRecordTableException;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.SiddhiTestHelper;
+import io.siddhi.core.util.config.InMemoryConfigManager;
+import io.siddhi.extension.store.cosmosdb.client.InMemoryCosmosClient;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryCosmosTableTest {
+
+    private static final Log log = LogFactory.getLog(InMemoryCosmosTableTest.class);
+    private static final String uri = "mem://InMemoryCosmosTableTest";
+    private static final String key = "inMemoryKey";
+    private static final String database = "testDb";
+    private AtomicInteger eventCount = new AtomicInteger(0);
+    private int waitTime = 50;
+    private int timeout = 30000;
+
+    @BeforeClass
+    public void init() {
+        log.info("== In-memory Cosmos Table tests started ==");
+        new InMemoryCosmosClient(uri).createDatabase(database);
+    }
+
+    @AfterClass
+    public void shutdown() {
+        InMemoryCosmosClient.reset(uri);
+        log.info("== In-memory Cosmos Table tests completed ==");
+    }
+
+    @BeforeMethod
+    public void testInit() {
+        eventCount.set(0);
+    }
+
+    private static SiddhiManager createSiddhiManager() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("store.cosmosdb.clientType", "InMemory");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setConfigManager(new InMemoryConfigManager(configs, null));
+        return siddhiManager;
+    }
+
+    private static String lastExecutedQuery() {
+        List<String> executedQueries = InMemoryCosmosClient.getExecutedQueries(uri);
+        return executedQueries.get(executedQueries.size() - 1);
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest1() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest1 - Check whether records exist without reading the matching documents");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='ContainsTable')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "@info(name = 'query2') " +
+                "from FooStream[(FooTable.symbol == symbol) in FooTable] " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                eventCount.addAndGet(events.length);
+            }
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"WSO2", 57.6F, 200L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        fooStream.send(new Object[]{"WSO2"});
+        String containsQuery = lastExecutedQuery();
+        fooStream.send(new Object[]{"MSFT"});
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 1, "Number of success events");
+        Assert.assertTrue(containsQuery.startsWith("SELECT TOP 1 ContainsTable.id FROM"),
+                "Existence check read whole documents: " + containsQuery);
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest2() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest2 - Read events of a table selecting only its attributes");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='FindTable')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "   on FooTable.symbol == FooStream.symbol " +
+                "select FooTable.symbol as symbol, FooTable.volume as volume " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    eventCount.incrementAndGet();
+                    Assert.assertEquals(event.getData(), new Object[]{"WSO2", 100L});
+                }
+            }
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 200L});
+        fooStream.send(new Object[]{"WSO2"});
+        String findQuery = lastExecutedQuery();
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 1, "Number of success events");
+        Assert.assertTrue(findQuery.startsWith("SELECT FindTable[\"symbol\"], FindTable[\"price\"], " +
+                "FindTable[\"volume\"] FROM"),
+                "Find did not project the table attributes: " + findQuery);
+    }
+
+    private static SiddhiAppRuntime createQueryableApp(SiddhiManager siddhiManager, String collectionName,
+                                                       String options) throws InterruptedException {
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='" + collectionName + "'" + options + ")" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 500L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"MSFT", 57.6F, 400L});
+        stockStream.send(new Object[]{"ORCL", 45.6F, 200L});
+        stockStream.send(new Object[]{"GOOG", 85.6F, 300L});
+        return siddhiAppRuntime;
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest3() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest3 - Query a table with a limit");
+        SiddhiAppRuntime siddhiAppRuntime = createQueryableApp(createSiddhiManager(), "LimitTable", "");
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable " +
+                "select symbol, volume " +
+                "order by volume " +
+                "limit 2 ");
+        String limitQuery = lastExecutedQuery();
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(events.length, 2, "Number of queried events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM", 100L});
+        Assert.assertEquals(events[1].getData(), new Object[]{"ORCL", 200L});
+        Assert.assertTrue(limitQuery.startsWith("SELECT TOP 2 "), "Limit was not pushed down: " + limitQuery);
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest4() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest4 - Query a table with an offset and a limit");
+        SiddhiAppRuntime siddhiAppRuntime = createQueryableApp(createSiddhiManager(), "OffsetTable", "");
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable " +
+                "select symbol, volume " +
+                "order by volume " +
+                "limit 2 " +
+                "offset 1 ");
+        String offsetQuery = lastExecutedQuery();
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(events.length, 2, "Number of queried events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"ORCL", 200L});
+        Assert.assertEquals(events[1].getData(), new Object[]{"GOOG", 300L});
+        Assert.assertTrue(offsetQuery.endsWith(" OFFSET 1 LIMIT 2"), "Offset was not pushed down: " + offsetQuery);
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest5() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest5 - Query a table with a limit smaller than a page while prefetching");
+        SiddhiAppRuntime siddhiAppRuntime = createQueryableApp(createSiddhiManager(), "PrefetchTable",
+                ", query.page.size='3', query.prefetch.depth='2'");
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable on volume > 150 " +
+                "select symbol, volume " +
+                "order by volume desc " +
+                "limit 2 ");
+        Event[] remainingEvents = siddhiAppRuntime.query("" +
+                "from FooTable on volume > 150 " +
+                "select symbol, volume " +
+                "order by volume desc " +
+                "limit 2 " +
+                "offset 2 ");
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(events.length, 2, "Number of queried events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"WSO2", 500L});
+        Assert.assertEquals(events[1].getData(), new Object[]{"MSFT", 400L});
+        Assert.assertEquals(remainingEvents.length, 2, "Number of queried events after the offset");
+        Assert.assertEquals(remainingEvents[0].getData(), new Object[]{"GOOG", 300L});
+        Assert.assertEquals(remainingEvents[1].getData(), new Object[]{"ORCL", 200L});
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest6() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest6 - Update and delete events of a table");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream UpdateStream (symbol string, volume long); " +
+                "define stream DeleteStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='UpdateDeleteTable')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "@info(name = 'query2') " +
+                "from UpdateStream " +
+                "update FooTable " +
+                "   set FooTable.volume = volume " +
+                "   on FooTable.symbol == symbol ;" +
+                "@info(name = 'query3') " +
+                "from DeleteStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler updateStream = siddhiAppRuntime.getInputHandler("UpdateStream");
+        InputHandler deleteStream = siddhiAppRuntime.getInputHandler("DeleteStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"MSFT", 57.6F, 100L});
+        updateStream.send(new Object[]{"IBM", 150L});
+        deleteStream.send(new Object[]{"MSFT"});
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable " +
+                "select symbol, volume " +
+                "order by symbol ");
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(events.length, 2, "Number of remaining events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM", 150L});
+        Assert.assertEquals(events[1].getData(), new Object[]{"WSO2", 100L});
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest7() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest7 - Update or insert events of a table");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='UpsertTable')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "update or insert into FooTable " +
+                "   set FooTable.volume = volume " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"WSO2", 57.6F, 300L});
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable " +
+                "select symbol, volume " +
+                "order by symbol ");
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(events.length, 2, "Number of events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM", 100L});
+        Assert.assertEquals(events[1].getData(), new Object[]{"WSO2", 300L});
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest8() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest8 - Discard the documents of an endpoint between Siddhi apps");
+        SiddhiAppRuntime siddhiAppRuntime = createQueryableApp(createSiddhiManager(), "ResetTable", "");
+        siddhiAppRuntime.shutdown();
+        InMemoryCosmosClient.reset(uri);
+        new InMemoryCosmosClient(uri).createDatabase(database);
+        Assert.assertTrue(InMemoryCosmosClient.getExecutedQueries(uri).isEmpty(), "Executed queries were kept");
+        siddhiAppRuntime = createSiddhiManager().createSiddhiAppRuntime("" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='ResetTable')" +
+                "define table FooTable (symbol string, price float, volume long);");
+        siddhiAppRuntime.start();
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable " +
+                "select symbol, volume ");
+        siddhiAppRuntime.shutdown();
+        Assert.assertTrue(events == null || events.length == 0, "Documents were kept after the reset");
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest9() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest9 - Update events of a table through more than one stored procedure " +
+                "execution");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream UpdateStream (symbol string, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='UpdateByConditionTable', " +
+                "is.enable.server.side.update='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "@info(name = 'query2') " +
+                "from UpdateStream " +
+                "update FooTable " +
+                "   set FooTable.volume = volume " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler updateStream = siddhiAppRuntime.getInputHandler("UpdateStream");
+        siddhiAppRuntime.start();
+        for (long volume = 0; volume < 250; volume++) {
+            stockStream.send(new Object[]{"WSO2", 55.6F, volume});
+        }
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        updateStream.send(new Object[]{"WSO2", 1000L});
+        long updateQueries = InMemoryCosmosClient.getExecutedQueries(uri).stream()
+                .filter(executedQuery -> executedQuery.startsWith("SELECT * FROM UpdateByConditionTable WHERE ("))
+                .count();
+        Event[] updatedEvents = siddhiAppRuntime.query("" +
+                "from FooTable on volume == 1000L " +
+                "select symbol, volume ");
+        Event[] otherEvents = siddhiAppRuntime.query("" +
+                "from FooTable on volume != 1000L " +
+                "select symbol, volume ");
+        siddhiAppRuntime.shutdown();
+        //The stored procedure yields after 100 documents, hence it is executed three times, and the last execution
+        //runs the query once more to find that no document is left to update.
+        Assert.assertEquals(updateQueries, 4, "Number of update by condition queries");
+        Assert.assertEquals(updatedEvents.length, 250, "Number of updated events");
+        Assert.assertEquals(otherEvents.length, 1, "Number of other events");
+        Assert.assertEquals(otherEvents[0].getData(), new Object[]{"IBM", 100L});
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest10() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest10 - Delete events of a table through more than one stored procedure " +
+                "execution");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='DeleteByConditionTable', " +
+                "is.enable.bulk.delete='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "@info(name = 'query2') " +
+                "from DeleteStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStream = siddhiAppRuntime.getInputHandler("DeleteStream");
+        siddhiAppRuntime.start();
+        for (long volume = 0; volume < 250; volume++) {
+            stockStream.send(new Object[]{"WSO2", 55.6F, volume});
+        }
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        deleteStream.send(new Object[]{"WSO2"});
+        long deleteQueries = InMemoryCosmosClient.getExecutedQueries(uri).stream()
+                .filter(executedQuery -> executedQuery.startsWith("SELECT * FROM DeleteByConditionTable WHERE "))
+                .count();
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable " +
+                "select symbol, volume ");
+        siddhiAppRuntime.shutdown();
+        //The stored procedure yields after 100 documents, hence it is executed three times, and the last execution
+        //runs the query once more to find that no document is left to delete.
+        Assert.assertEquals(deleteQueries, 4, "Number of delete by condition queries");
+        Assert.assertEquals(events.length, 1, "Number of remaining events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM", 100L});
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void inMemoryCosmosTableTest11() throws DocumentClientException {
+        log.info("inMemoryCosmosTableTest11 - Use stored procedures on a collection partitioned on a path which is " +
+                "not a table attribute, without a partition key");
+        DocumentCollection collection = new DocumentCollection();
+        collection.setId("ForeignPartitionTable");
+        PartitionKeyDefinition partitionKeyDefinition = new PartitionKeyDefinition();
+        partitionKeyDefinition.setPaths(Collections.singletonList("/region"));
+        collection.setPartitionKey(partitionKeyDefinition);
+        new InMemoryCosmosClient(uri).createCollection("dbs/" + database, collection, null);
+        SiddhiAppRuntime siddhiAppRuntime = createSiddhiManager().createSiddhiAppRuntime("" +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='ForeignPartitionTable', " +
+                "is.enable.bulk.delete='true')" +
+                "define table FooTable (symbol string, price float, volume long);");
+        try {
+            siddhiAppRuntime.start();
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest12() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest12 - Query a table with an attribute named after a reserved word");
+        SiddhiManager siddhiManager = createSiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, value long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', collection.name='ReservedWordTable')" +
+                "define table FooTable (symbol string, value long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 500L});
+        stockStream.send(new Object[]{"IBM", 100L});
+        stockStream.send(new Object[]{"MSFT", 400L});
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable on value > 150 " +
+                "select symbol, value as amount " +
+                "order by value ");
+        String renamedQuery = lastExecutedQuery();
+        //An output attribute named after a reserved word cannot be aliased, hence Siddhi selects it itself.
+        Event[] reservedEvents = siddhiAppRuntime.query("" +
+                "from FooTable on value > 150 " +
+                "select symbol, value ");
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(events.length, 2, "Number of queried events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"MSFT", 400L});
+        Assert.assertEquals(events[1].getData(), new Object[]{"WSO2", 500L});
+        Assert.assertTrue(renamedQuery.startsWith("SELECT ReservedWordTable[\"symbol\"] AS symbol, " +
+                "ReservedWordTable[\"value\"] AS amount FROM"), "Selection was not pushed down: " + renamedQuery);
+        Assert.assertEquals(reservedEvents.length, 2, "Number of queried events selecting a reserved word");
+    }
+
+    @Test
+    public void inMemoryCosmosTableTest13() throws InterruptedException {
+        log.info("inMemoryCosmosTableTest13 - Aggregate events of a partitioned table within and across partitions");
+        SiddhiAppRuntime siddhiAppRuntime = createQueryableApp(createSiddhiManager(), "PartitionedAggregateTable",
+                ", partition.key.attribute='symbol'");
+        Event[] events = siddhiAppRuntime.query("" +
+                "from FooTable on symbol == 'WSO2' " +
+                "select symbol, sum(volume) as totalVolume " +
+                "group by symbol ");
+        String groupedQuery = lastExecutedQuery();
+        RuntimeException crossPartitionError = null;
+        try {
+            siddhiAppRuntime.query("" +
+                    "from FooTable " +
+                    "select sum(volume) as totalVolume ");
+        } catch (RuntimeException e) {
+            crossPartitionError = e;
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+        Assert.assertEquals(events.length, 1, "Number of queried events");
+        Assert.assertEquals(events[0].getData(), new Object[]{"WSO2", 500L});
+        Assert.assertTrue(groupedQuery.contains(" GROUP BY "), "Grouping was not pushed down: " + groupedQuery);
+        Assert.assertNotNull(crossPartitionError, "Aggregated a partitioned table across partitions");
+        Throwable cause = crossPartitionError;
+        while (!(cause instanceof QueryableRecordTableException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        Assert.assertTrue(cause instanceof QueryableRecordTableException, "Unexpected error: " + crossPartitionError);
+    }
+}
@@ -19,6 +19,7 @@
 
 package io.siddhi.extension.store.cosmosdb;
 
+import com.microsoft.azure.documentdb.Document;
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.exception.SiddhiAppCreationException;
@@ -215,4 +216,219 @@ public class InsertIntoCosmosTableTest {
                 collectionLink);
         Assert.assertEquals(totalDocumentsInCollection, 1, "Insertion failed");
     }
+
+    @Test
+    public void insertIntoCosmosTableTest8() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest8 - Insert events to a CosmosDB table asynchronously");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.async.write='true', async.write.worker.count='2', " +
+                "async.write.batch.size='2')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "select symbol, price, volume " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        fooStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        fooStream.send(new Object[]{"IBM", 75.6f, 100L});
+        fooStream.send(new Object[]{"MSFT", 57.6f, 100L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Asynchronous insertion failed");
+    }
+
+    @Test
+    public void insertIntoCosmosTableTest9() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest9 - Insert events to a CosmosDB table through the bulk insert stored " +
+                "procedure");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.bulk.insert='true', bulk.insert.batch.size='2')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream#window.lengthBatch(3) " +
+                "select symbol, price, volume " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        fooStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        fooStream.send(new Object[]{"IBM", 75.6f, 100L});
+        fooStream.send(new Object[]{"MSFT", 57.6f, 100L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Bulk insertion failed");
+    }
+
+    @Test
+    public void insertIntoCosmosTableTest10() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest10 - Insert events to a CosmosDB table with a composite primary key");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, exchange string, price float); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='symbol', " +
+                "is.enable.primary.key.id='true')" +
+                "@PrimaryKey('symbol', 'exchange')" +
+                "define table FooTable (symbol string, exchange string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "select symbol, exchange, price " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        fooStream.send(new Object[]{"WSO2", "NYSE", 55.6f});
+        fooStream.send(new Object[]{"WSO2", "NASDAQ", 56.6f});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Insertion failed");
+        Document document = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.id='WSO2_NYSE'");
+        Assert.assertEquals(document.get("price"), 55.6, "Document id was not derived from the primary key");
+    }
+
+    @Test
+    public void insertIntoCosmosTableTest11() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest11 - Insert events of several partitions to a CosmosDB table in parallel");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='symbol', write.parallelism='4')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream#window.lengthBatch(4) " +
+                "select symbol, price, volume " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        fooStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        fooStream.send(new Object[]{"IBM", 75.6f, 100L});
+        fooStream.send(new Object[]{"MSFT", 57.6f, 100L});
+        fooStream.send(new Object[]{"WSO2", 56.6f, 200L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 4, "Parallel insertion failed");
+    }
+
+    @Test
+    public void insertIntoCosmosTableTest12() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest12 - Insert events to a CosmosDB table within a request unit budget");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', request.units.per.second='20')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "select symbol, price, volume " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 10; i++) {
+            fooStream.send(new Object[]{"WSO2", 55.6f + i, 100L});
+        }
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 10, "Paced insertion failed");
+    }
+
+    @Test
+    public void insertIntoCosmosTableTest13() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest13 - Insert events to a CosmosDB table retrying throttled writes on the " +
+                "table's scheduler");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='symbol', write.parallelism='2', " +
+                "is.enable.throttle.retry.scheduling='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream#window.lengthBatch(4) " +
+                "select symbol, price, volume " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        fooStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        fooStream.send(new Object[]{"IBM", 75.6f, 100L});
+        fooStream.send(new Object[]{"MSFT", 57.6f, 100L});
+        fooStream.send(new Object[]{"WSO2", 56.6f, 200L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 4, "Insertion with scheduled retries failed");
+    }
+
+    @Test
+    public void insertIntoCosmosTableTest14() throws InterruptedException {
+        log.info("insertIntoCosmosTableTest14 - Insert events to CosmosDB tables of different Siddhi apps sharing " +
+                "a client, after one of the apps has been shut down");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "insert into FooTable;";
+        SiddhiAppRuntime firstAppRuntime = siddhiManager.createSiddhiAppRuntime("@App:name('FirstApp') " +
+                streams + query);
+        SiddhiAppRuntime secondAppRuntime = siddhiManager.createSiddhiAppRuntime("@App:name('SecondApp') " +
+                streams + query);
+        firstAppRuntime.start();
+        secondAppRuntime.start();
+        firstAppRuntime.getInputHandler("FooStream").send(new Object[]{"WSO2", 55.6f, 100L});
+        firstAppRuntime.shutdown();
+        secondAppRuntime.getInputHandler("FooStream").send(new Object[]{"IBM", 75.6f, 100L});
+        secondAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Insertion through a shared client failed");
+    }
 }
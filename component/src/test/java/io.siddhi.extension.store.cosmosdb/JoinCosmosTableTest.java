@@ -297,4 +297,256 @@ public class JoinCosmosTableTest {
         siddhiAppRuntime.shutdown();
         Assert.assertEquals(eventCount.intValue(), 1, "Read events failed");
     }
+
+    @Test
+    public void testCosmosTableJoinQuery7() throws InterruptedException {
+        log.info("testCosmosTableJoinQuery7 -" +
+                "Read events spanning several result pages from a CosmosDB collection successfully");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', query.page.size='2')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "select FooStream.symbol as checkSymbol, FooTable.symbol as symbol, " +
+                "FooTable.volume as volume  " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    eventCount.addAndGet(inEvents.length);
+                }
+            }
+
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 5.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 7.6f, 10L});
+        stockStream.send(new Object[]{"MSFT", 57.6f, 200L});
+        stockStream.send(new Object[]{"ORACLE", 17.6f, 20L});
+        stockStream.send(new Object[]{"GOOG", 27.6f, 50L});
+        fooStream.send(new Object[]{"WSO2_check"});
+        SiddhiTestHelper.waitForEvents(waitTime, 5, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 5, "Read events failed");
+    }
+
+    @Test
+    public void testCosmosTableJoinQuery8() throws InterruptedException {
+        log.info("testCosmosTableJoinQuery8 -" +
+                "Read events spanning several result pages without prefetching them");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', query.page.size='2', " +
+                "query.prefetch.depth='0')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "select FooStream.symbol as checkSymbol, FooTable.symbol as symbol, " +
+                "FooTable.volume as volume  " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    eventCount.addAndGet(inEvents.length);
+                }
+            }
+
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 5.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 7.6f, 10L});
+        stockStream.send(new Object[]{"MSFT", 57.6f, 200L});
+        stockStream.send(new Object[]{"ORACLE", 17.6f, 20L});
+        stockStream.send(new Object[]{"GOOG", 27.6f, 50L});
+        fooStream.send(new Object[]{"WSO2_check"});
+        SiddhiTestHelper.waitForEvents(waitTime, 5, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 5, "Read events failed");
+    }
+
+    @Test
+    public void testCosmosTableJoinQuery9() throws InterruptedException {
+        log.info("testCosmosTableJoinQuery9 -" +
+                "Read the top events ordered by an attribute from a CosmosDB collection successfully");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "select FooStream.symbol as checkSymbol, FooTable.symbol as symbol, " +
+                "FooTable.volume as volume  " +
+                "order by volume desc " +
+                "limit 2 " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        eventCount.incrementAndGet();
+                        switch (eventCount.intValue()) {
+                            case 1:
+                                Assert.assertEquals(event.getData(1), "MSFT");
+                                break;
+                            case 2:
+                                Assert.assertEquals(event.getData(1), "WSO2");
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 5.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 7.6f, 10L});
+        stockStream.send(new Object[]{"MSFT", 57.6f, 200L});
+        fooStream.send(new Object[]{"WSO2_check"});
+        SiddhiTestHelper.waitForEvents(waitTime, 2, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 2, "Read events failed");
+    }
+
+    @Test
+    public void testCosmosTableJoinQuery10() throws InterruptedException {
+        log.info("testCosmosTableJoinQuery10 -" +
+                "Read aggregated events grouped by an attribute from a CosmosDB collection successfully");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "on FooTable.symbol == FooStream.symbol " +
+                "select FooTable.symbol as symbol, sum(FooTable.volume) as totalVolume, count() as trades " +
+                "group by FooTable.symbol " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        eventCount.incrementAndGet();
+                        Assert.assertEquals(new Object[]{"WSO2", 150L, 2L}, event.getData());
+                    }
+                }
+            }
+
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 5.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 7.6f, 10L});
+        stockStream.send(new Object[]{"WSO2", 57.6f, 50L});
+        fooStream.send(new Object[]{"WSO2"});
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 1, "Read events failed");
+    }
+
+    @Test
+    public void testCosmosTableJoinQuery11() throws InterruptedException {
+        log.info("testCosmosTableJoinQuery11 -" +
+                "Read events of a single partition from a partitioned CosmosDB collection successfully");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='symbol')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "on FooTable.symbol == FooStream.symbol and FooTable.volume > 20 " +
+                "select FooTable.symbol as symbol, FooTable.volume as volume " +
+                "insert into OutputStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        eventCount.incrementAndGet();
+                        Assert.assertEquals(event.getData(0), "WSO2");
+                    }
+                }
+            }
+
+        });
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 5.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 7.6f, 100L});
+        stockStream.send(new Object[]{"WSO2", 57.6f, 10L});
+        stockStream.send(new Object[]{"WSO2", 57.6f, 50L});
+        fooStream.send(new Object[]{"WSO2"});
+        SiddhiTestHelper.waitForEvents(waitTime, 2, eventCount, timeout);
+        siddhiAppRuntime.shutdown();
+        Assert.assertEquals(eventCount.intValue(), 2, "Read events failed");
+    }
 }
@@ -303,4 +303,126 @@ public class UpdateCosmosTableTest {
                 collectionLink);
         Assert.assertEquals(totalDocumentsInCollection, 3, "Update failed");
     }
+
+    @Test
+    public void updateFromCosmosTableTest9() throws InterruptedException {
+        log.info("updateFromCosmosTableTest9 - Updates events of a CosmosDB table by their primary key through the " +
+                "patch stored procedure");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.patch.update='true', " +
+                "is.enable.primary.key.id='true')" +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update FooTable " +
+                "set FooTable.volume = volume " +
+                "on FooTable.symbol == symbol;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 74.6f, 100L});
+        fooStream.send(new Object[]{"IBM", 500L});
+        fooStream.send(new Object[]{"MSFT", 600L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Patch update inserted a document");
+        Document updatedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.symbol='IBM'");
+        Assert.assertEquals(updatedDocument.get("volume"), 500, "Patch update failed");
+        Assert.assertEquals(updatedDocument.getDouble("price"), 74.6, 0.01, "Patch update lost an attribute");
+    }
+
+    @Test
+    public void updateFromCosmosTableTest10() throws InterruptedException {
+        log.info("updateFromCosmosTableTest10 - Updates events of a CosmosDB table matching a non-key condition " +
+                "through the update by condition stored procedure");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.server.side.update='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update FooTable " +
+                "set FooTable.price = price " +
+                "on FooTable.volume == volume;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 74.6f, 100L});
+        stockStream.send(new Object[]{"MSFT", 57.6f, 200L});
+        fooStream.send(new Object[]{10.5f, 100L});
+        siddhiAppRuntime.shutdown();
+        Document updatedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.symbol='IBM'");
+        Assert.assertEquals(updatedDocument.getDouble("price"), 10.5, 0.01, "Server side update failed");
+        Document unchangedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.symbol='MSFT'");
+        Assert.assertEquals(unchangedDocument.getDouble("price"), 57.6, 0.01, "Server side update changed a " +
+                "document which does not match the condition");
+    }
+
+    @Test
+    public void updateFromCosmosTableTest11() throws InterruptedException {
+        log.info("updateFromCosmosTableTest11 - Updates events of a CosmosDB table matching a non-key condition by " +
+                "patching the documents the condition refers to");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', partition.key.attribute='symbol', " +
+                "is.enable.patch.update='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update FooTable " +
+                "set FooTable.price = price " +
+                "on FooTable.volume == volume;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 74.6f, 200L});
+        fooStream.send(new Object[]{10.5f, 200L});
+        siddhiAppRuntime.shutdown();
+        Document updatedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.symbol='IBM'");
+        Assert.assertEquals(updatedDocument.getDouble("price"), 10.5, 0.01, "Patch update failed");
+        Assert.assertEquals(updatedDocument.get("volume"), 200, "Patch update lost an attribute");
+    }
 }
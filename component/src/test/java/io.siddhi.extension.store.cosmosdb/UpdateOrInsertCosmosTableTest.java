@@ -289,4 +289,145 @@ public class UpdateOrInsertCosmosTableTest {
         siddhiAppRuntime.start();
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void updateOrInsertCosmosTableTest8() throws InterruptedException {
+        log.info("updateOrInsertCosmosTableTest8 - Configure siddhi to perform insert/update on CosmosDB document " +
+                "using native upserts");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (id string, price float, volume long); " +
+                "define stream FooStream (id string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.native.upsert='true')" +
+                "define table FooTable (id string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.id == id ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"GOOG", 75.6F, 100L});
+        fooStream.send(new Object[]{"GOOG", 10.6F, 200L});
+        fooStream.send(new Object[]{"IBM", 20.6F, 300L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Upsert failed");
+        Document updatedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.id='GOOG'");
+        Assert.assertEquals(updatedDocument.get("volume"), 200, "Upsert Failed");
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void updateOrInsertCosmosTableTest9() {
+        log.info("updateOrInsertCosmosTableTest9 - Configure native upserts on a table without an id attribute");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.native.upsert='true')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void updateOrInsertCosmosTableTest10() throws InterruptedException {
+        log.info("updateOrInsertCosmosTableTest10 - Update or insert events keyed by their primary key through " +
+                "transactional batches");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.transactional.batch='true', " +
+                "is.enable.primary.key.id='true')" +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.lengthBatch(3) " +
+                "update or insert into FooTable " +
+                "   set FooTable.volume = volume " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"GOOG", 75.6F, 100L});
+        fooStream.send(new Object[]{"GOOG", 10.6F, 200L});
+        fooStream.send(new Object[]{"IBM", 20.6F, 300L});
+        fooStream.send(new Object[]{"IBM", 20.6F, 400L});
+        siddhiAppRuntime.shutdown();
+        long totalDocumentsInCollection = CosmosTableTestUtils.getDocumentsCount(uri, key, "FooTable",
+                collectionLink);
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Update or insert through transactional batches failed");
+        Document updatedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.symbol='GOOG'");
+        Assert.assertEquals(updatedDocument.get("volume"), 200, "Update through transactional batches failed");
+        Document insertedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.symbol='IBM'");
+        Assert.assertEquals(insertedDocument.get("volume"), 400, "Update after insert in the same batch failed");
+    }
+
+    @Test
+    public void updateOrInsertCosmosTableTest11() throws InterruptedException {
+        log.info("updateOrInsertCosmosTableTest11 - Configure native upserts and update or insert only some of the " +
+                "attributes of the matching document");
+        String collectionLink = String.format("/dbs/%s/colls/%s", database, "FooTable");
+        CosmosTableTestUtils.dropCollection(uri, key, collectionLink);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (id string, price float, volume long); " +
+                "define stream FooStream (id string, price float, volume long); " +
+                "@store(type = 'cosmosdb' , uri='" + uri + "', access.key='" + key + "', " +
+                "database.name='" + database + "', is.enable.native.upsert='true')" +
+                "define table FooTable (id string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   set FooTable.volume = volume " +
+                "   on FooTable.id == id ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"GOOG", 75.6F, 100L});
+        fooStream.send(new Object[]{"GOOG", 10.6F, 200L});
+        siddhiAppRuntime.shutdown();
+        Document updatedDocument = CosmosTableTestUtils.getDocument(uri, key, collectionLink, "FooTable",
+                "FooTable.id='GOOG'");
+        Assert.assertEquals(updatedDocument.get("volume"), 200, "Update or insert failed");
+        Assert.assertEquals(updatedDocument.getDouble("price"), 75.6, 0.001,
+                "Attribute not in the set clause was overwritten by the inserted event");
+    }
 }